@@ -0,0 +1,162 @@
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compares login latency of the old plain-text check with AuthService.
+ *
+ * Usage: java LoginBenchmark [users] [loginsPerUser] [roundTripMs]
+ * The credential store is in memory with a simulated MySQL round trip. "cold" is the first login
+ * of each user (round trip plus PBKDF2, plus the hash upgrade write for legacy rows and the session
+ * write); "warm" covers the logins after it, which the session cache answers without touching the
+ * store. The "restart" rows start a fresh AuthService, as a relaunched app would: "password" types
+ * the password again and pays for PBKDF2, "resumed" presents the remembered session token instead.
+ * Any login that has to check a password costs at least one PBKDF2 run by design; what the
+ * remembered token removes is paying for it on every launch.
+ */
+public class LoginBenchmark {
+
+    public static void main(String[] args) throws SQLException {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int loginsPerUser = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        long roundTripMs = args.length > 2 ? Long.parseLong(args[2]) : 2;
+
+        Map<String, String> passwords = new ConcurrentHashMap<>();
+        for (int i = 0; i < users; i++) {
+            passwords.put("user" + i, "password" + i);
+        }
+        SimulatedStore store = new SimulatedStore(passwords, roundTripMs);
+
+        long[] legacy = new long[users * loginsPerUser];
+        int n = 0;
+        for (int round = 0; round < loginsPerUser; round++) {
+            for (int i = 0; i < users; i++) {
+                long start = System.nanoTime();
+                String stored = store.loadPassword("user" + i);
+                boolean valid = stored != null && stored.equals("password" + i);
+                legacy[n++] = System.nanoTime() - start;
+                if (!valid) {
+                    throw new IllegalStateException("legacy login failed");
+                }
+            }
+        }
+
+        AuthService auth = new AuthService(store);
+        String[] tokens = new String[users];
+        long[] cold = new long[users];
+        long[] warm = new long[users * (loginsPerUser - 1)];
+        int warmCount = 0;
+        for (int round = 0; round < loginsPerUser; round++) {
+            for (int i = 0; i < users; i++) {
+                long start = System.nanoTime();
+                AuthService.LoginResult result = auth.login("user" + i, "password" + i);
+                long elapsed = System.nanoTime() - start;
+                if (result.getStatus() != AuthService.Status.SUCCESS) {
+                    throw new IllegalStateException("login failed: " + result.getStatus());
+                }
+                if (round == 0) {
+                    cold[i] = elapsed;
+                    tokens[i] = result.getSessionToken();
+                } else {
+                    warm[warmCount++] = elapsed;
+                }
+            }
+        }
+
+        long[] all = Arrays.copyOf(cold, cold.length + warm.length);
+        System.arraycopy(warm, 0, all, cold.length, warm.length);
+
+        AuthService restartedWithPassword = new AuthService(store);
+        AuthService restartedWithToken = new AuthService(store);
+        long[] restartPassword = new long[users];
+        long[] restartResumed = new long[users];
+        for (int i = 0; i < users; i++) {
+            long start = System.nanoTime();
+            AuthService.Status status = restartedWithPassword.login("user" + i, "password" + i).getStatus();
+            restartPassword[i] = System.nanoTime() - start;
+            start = System.nanoTime();
+            AuthService.Status resumed = restartedWithToken.resume("user" + i, tokens[i]).getStatus();
+            restartResumed[i] = System.nanoTime() - start;
+            if (status != AuthService.Status.SUCCESS || resumed != AuthService.Status.SUCCESS) {
+                throw new IllegalStateException("restart login failed: " + status + "/" + resumed);
+            }
+        }
+
+        report("legacy", legacy);
+        report("hashed-cold", cold);
+        report("hashed-warm", warm);
+        report("hashed-all", all);
+        report("restart-password", restartPassword);
+        report("restart-resumed", restartResumed);
+        System.out.printf("storeReads=%d storeWrites=%d%n", store.reads, store.writes);
+    }
+
+    private static void report(String name, long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-16s n=%d p50=%.3fms p99=%.3fms max=%.3fms%n", name, sorted.length,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private static class SimulatedStore implements AuthService.CredentialStore {
+        private final Map<String, String> passwords;
+        private final Map<String, String> sessions = new ConcurrentHashMap<>();
+        private final long roundTripMs;
+        private int reads;
+        private int writes;
+
+        SimulatedStore(Map<String, String> passwords, long roundTripMs) {
+            this.passwords = passwords;
+            this.roundTripMs = roundTripMs;
+        }
+
+        @Override
+        public String loadPassword(String username) {
+            reads++;
+            pause();
+            return passwords.get(username);
+        }
+
+        @Override
+        public void updatePassword(String username, String storedPassword) {
+            writes++;
+            pause();
+            passwords.put(username, storedPassword);
+        }
+
+        @Override
+        public void saveSession(String username, String tokenHash, Timestamp expiresAt) {
+            writes++;
+            pause();
+            sessions.put(tokenHash, username);
+        }
+
+        @Override
+        public String loadSessionUser(String tokenHash) {
+            reads++;
+            pause();
+            return sessions.get(tokenHash);
+        }
+
+        @Override
+        public void deleteSession(String tokenHash) {
+            writes++;
+            pause();
+            sessions.remove(tokenHash);
+        }
+
+        private void pause() {
+            try {
+                Thread.sleep(roundTripMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
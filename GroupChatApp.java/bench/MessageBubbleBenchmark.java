@@ -0,0 +1,129 @@
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures per-message allocation and CSS/layout time for message bubbles.
+ *
+ * Usage: java MessageBubbleBenchmark [messageCount] [rounds]
+ * Compares three ways of rendering a message:
+ *   inline  - a new node tree with inline -fx-* style strings per message (the original transcript)
+ *   bubble  - a new MessageBubble per message, styled by the generated ChatStyles stylesheet
+ *   rebind  - a single recycled MessageBubble rebound per message, as MessageCell does while scrolling
+ */
+public class MessageBubbleBenchmark extends Application {
+
+    private static final String[] MEMBERS = {"FAITH", "BLESSING", "STYVE", "TERRY"};
+    private static final Map<String, String> MEMBER_COLORS = new HashMap<>();
+    private static final int WARMUP_ROUNDS = 3;
+
+    static {
+        MEMBER_COLORS.put("FAITH", "#FF6B6B");
+        MEMBER_COLORS.put("BLESSING", "#4ECDC4");
+        MEMBER_COLORS.put("STYVE", "#45B7D1");
+        MEMBER_COLORS.put("TERRY", "#96CEB4");
+    }
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Override
+    public void start(Stage stage) {
+        List<String> args = getParameters().getRaw();
+        int count = args.size() > 0 ? Integer.parseInt(args.get(0)) : 2000;
+        int rounds = args.size() > 1 ? Integer.parseInt(args.get(1)) : 10;
+
+        List<ChatMessage> messages = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.now().minusMinutes(count);
+        for (int i = 0; i < count; i++) {
+            String sender = MEMBERS[i % MEMBERS.length];
+            messages.add(new ChatMessage(i + 1, sender,
+                    "Synthetic message " + i + " from " + sender + " with some text to wrap across the bubble.",
+                    start.plusMinutes(i)));
+        }
+
+        for (String mode : new String[]{"inline", "bubble", "rebind"}) {
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                runRound(mode, messages);
+            }
+            Result total = new Result();
+            for (int i = 0; i < rounds; i++) {
+                total.add(runRound(mode, messages));
+            }
+            double perMessage = (double) rounds * count;
+            System.out.printf("mode=%s messages=%d rounds=%d allocBytesPerMsg=%.0f buildUsPerMsg=%.2f cssLayoutUsPerMsg=%.2f%n",
+                    mode, count, rounds, total.allocatedBytes / perMessage,
+                    total.buildNanos / perMessage / 1000.0, total.layoutNanos / perMessage / 1000.0);
+        }
+        Platform.exit();
+    }
+
+    // Everything runs on the FX thread, so its allocation counter covers both build and layout
+    private Result runRound(String mode, List<ChatMessage> messages) {
+        VBox container = new VBox(10);
+        Scene scene = new Scene(container, 900, 700);
+        scene.getStylesheets().add(ChatStyles.stylesheet(MEMBER_COLORS));
+
+        Result result = new Result();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+
+        if (mode.equals("rebind")) {
+            MessageBubble bubble = new MessageBubble();
+            container.getChildren().add(bubble);
+            for (ChatMessage message : messages) {
+                long buildStart = System.nanoTime();
+                bubble.bind(message);
+                long layoutStart = System.nanoTime();
+                container.applyCss();
+                container.layout();
+                result.buildNanos += layoutStart - buildStart;
+                result.layoutNanos += System.nanoTime() - layoutStart;
+            }
+        } else {
+            long buildStart = System.nanoTime();
+            for (ChatMessage message : messages) {
+                if (mode.equals("inline")) {
+                    container.getChildren().add(TranscriptBenchmark.buildLegacyMessage(message, MEMBER_COLORS));
+                } else {
+                    MessageBubble bubble = new MessageBubble();
+                    bubble.bind(message);
+                    container.getChildren().add(bubble);
+                }
+            }
+            long layoutStart = System.nanoTime();
+            container.applyCss();
+            container.layout();
+            result.buildNanos = layoutStart - buildStart;
+            result.layoutNanos = System.nanoTime() - layoutStart;
+        }
+
+        result.allocatedBytes = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return result;
+    }
+
+    private static class Result {
+        private long allocatedBytes;
+        private long buildNanos;
+        private long layoutNanos;
+
+        private void add(Result other) {
+            allocatedBytes += other.allocatedBytes;
+            buildNanos += other.buildNanos;
+            layoutNanos += other.layoutNanos;
+        }
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
@@ -0,0 +1,86 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures MessageIndex build time and query latency over synthetic chat history.
+ *
+ * Usage: java MessageIndexBenchmark [messageCount]
+ * Each query shape is warmed up before timing; results are reported as p50/p99/max.
+ */
+public class MessageIndexBenchmark {
+    private static final String[] MEMBERS = {"FAITH", "BLESSING", "STYVE", "TERRY"};
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 1000;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<ChatMessage> messages = generate(count);
+
+        MessageIndex index = new MessageIndex();
+        long start = System.nanoTime();
+        index.addAll(messages);
+        long buildNanos = System.nanoTime() - start;
+        System.out.printf("build: %d messages in %.1f ms (%.2f us/message)%n",
+                count, buildNanos / 1e6, buildNanos / 1e3 / count);
+
+        String[] queries = {
+                "deploy",
+                "deploy review",
+                "dep",
+                "release notes from:TERRY",
+                "from:FAITH after:" + LocalDateTime.now().minusDays(7).toLocalDate(),
+                "meeting tomorrow morning",
+        };
+        for (String text : queries) {
+            MessageIndex.Query query = MessageIndex.Query.parse(text);
+            int hits = 0;
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                hits = index.search(query, 200).length;
+            }
+            long[] samples = new long[MEASURED_ROUNDS];
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                long t = System.nanoTime();
+                index.search(query, 200);
+                samples[i] = System.nanoTime() - t;
+            }
+            Arrays.sort(samples);
+            System.out.printf("query %-45s hits=%-4d p50=%.3f ms p99=%.3f ms max=%.3f ms%n",
+                    '"' + text + '"', hits,
+                    samples[MEASURED_ROUNDS / 2] / 1e6,
+                    samples[MEASURED_ROUNDS * 99 / 100] / 1e6,
+                    samples[MEASURED_ROUNDS - 1] / 1e6);
+        }
+    }
+
+    private static List<ChatMessage> generate(int count) {
+        // Zipf-like vocabulary: a few very common words and a long tail
+        String[] common = {"the", "to", "and", "a", "we", "is", "it", "for", "on", "that"};
+        String[] topical = {"deploy", "deployment", "review", "release", "notes", "meeting", "tomorrow",
+                "morning", "bug", "fix", "merge", "branch", "database", "query", "index", "schedule"};
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.now().minusMinutes(count);
+        List<ChatMessage> messages = new ArrayList<>(count);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.setLength(0);
+            int words = 5 + random.nextInt(15);
+            for (int w = 0; w < words; w++) {
+                int pick = random.nextInt(100);
+                if (pick < 60) {
+                    sb.append(common[random.nextInt(common.length)]);
+                } else if (pick < 90) {
+                    sb.append(topical[random.nextInt(topical.length)]);
+                } else {
+                    sb.append("word").append(random.nextInt(50000));
+                }
+                sb.append(' ');
+            }
+            messages.add(new ChatMessage(i + 1, MEMBERS[random.nextInt(MEMBERS.length)],
+                    sb.toString(), base.plusMinutes(i)));
+        }
+        return messages;
+    }
+}
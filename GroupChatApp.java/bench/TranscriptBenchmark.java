@@ -0,0 +1,159 @@
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads N synthetic messages into the transcript and reports heap use and first-paint time.
+ *
+ * Usage: java TranscriptBenchmark [messageCount] [--legacy]
+ * The --legacy flag renders one VBox/HBox/Label tree per message, as the transcript used to.
+ */
+public class TranscriptBenchmark extends Application {
+
+    private static final String[] MEMBERS = {"FAITH", "BLESSING", "STYVE", "TERRY"};
+    private static final Map<String, String> MEMBER_COLORS = new HashMap<>();
+
+    static {
+        MEMBER_COLORS.put("FAITH", "#FF6B6B");
+        MEMBER_COLORS.put("BLESSING", "#4ECDC4");
+        MEMBER_COLORS.put("STYVE", "#45B7D1");
+        MEMBER_COLORS.put("TERRY", "#96CEB4");
+    }
+
+    @Override
+    public void start(Stage stage) {
+        List<String> args = getParameters().getRaw();
+        int count = 20000;
+        boolean legacy = false;
+        for (String arg : args) {
+            if (arg.equals("--legacy")) {
+                legacy = true;
+            } else {
+                count = Integer.parseInt(arg);
+            }
+        }
+
+        List<ChatMessage> messages = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.now().minusMinutes(count);
+        for (int i = 0; i < count; i++) {
+            String sender = MEMBERS[i % MEMBERS.length];
+            messages.add(new ChatMessage(i + 1, sender,
+                    "Synthetic message " + i + " from " + sender + " with some text to wrap across the bubble.",
+                    start.plusMinutes(i)));
+        }
+
+        long heapBefore = usedHeap();
+        long startNanos = System.nanoTime();
+
+        Region transcript = legacy ? buildLegacyTranscript(messages) : buildVirtualTranscript(messages);
+        Scene scene = new Scene(transcript, 900, 700);
+
+        boolean legacyMode = legacy;
+        int messageCount = count;
+        Runnable[] firstPaint = new Runnable[1];
+        firstPaint[0] = () -> {
+            scene.removePostLayoutPulseListener(firstPaint[0]);
+            long firstPaintMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            // Let the pulse finish before measuring so the rendered nodes are counted
+            Platform.runLater(() -> {
+                long heapAfter = usedHeap();
+                System.out.printf("mode=%s messages=%d firstPaintMs=%d heapDeltaMb=%.1f nodes=%d%n",
+                        legacyMode ? "legacy" : "virtual", messageCount, firstPaintMillis,
+                        (heapAfter - heapBefore) / (1024.0 * 1024.0), countNodes(transcript));
+                Platform.exit();
+            });
+        };
+        scene.addPostLayoutPulseListener(firstPaint[0]);
+
+        stage.setScene(scene);
+        stage.show();
+    }
+
+    private Region buildVirtualTranscript(List<ChatMessage> messages) {
+        ListView<ChatMessage> view = new ListView<>(FXCollections.observableArrayList(messages));
+        view.getStylesheets().add(ChatStyles.stylesheet(MEMBER_COLORS));
+        view.setCellFactory(list -> new MessageCell(list));
+        view.scrollTo(messages.size() - 1);
+        return view;
+    }
+
+    private Region buildLegacyTranscript(List<ChatMessage> messages) {
+        VBox container = new VBox(10);
+        for (ChatMessage message : messages) {
+            container.getChildren().add(buildLegacyMessage(message, MEMBER_COLORS));
+        }
+
+        ScrollPane scrollPane = new ScrollPane(container);
+        scrollPane.setFitToWidth(true);
+        scrollPane.setVvalue(1.0);
+        return scrollPane;
+    }
+
+    // One freshly styled node tree per message, the way the transcript was originally rendered
+    static VBox buildLegacyMessage(ChatMessage message, Map<String, String> memberColors) {
+        VBox messageBox = new VBox(8);
+        messageBox.setStyle("-fx-background-color: #1a1a1a; -fx-background-radius: 10px; " +
+                "-fx-padding: 15px; -fx-border-color: " + memberColors.get(message.getSender()) +
+                "; -fx-border-width: 1.5px; -fx-border-radius: 10px;");
+
+        HBox header = new HBox(15);
+        header.setAlignment(Pos.CENTER_LEFT);
+
+        Label senderLabel = new Label(message.getSender());
+        senderLabel.setStyle("-fx-text-fill: " + memberColors.get(message.getSender()) +
+                "; -fx-font-weight: bold; -fx-font-size: 15px;");
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        Label timeLabel = new Label(message.getTimestamp().toString());
+        timeLabel.setStyle("-fx-text-fill: #BDC3C7; -fx-font-size: 11px;");
+
+        header.getChildren().addAll(senderLabel, spacer, timeLabel);
+
+        Label messageLabel = new Label(message.getContent());
+        messageLabel.setStyle("-fx-text-fill: white; -fx-font-size: 14px; -fx-line-spacing: 2px;");
+        messageLabel.setWrapText(true);
+
+        messageBox.getChildren().addAll(header, messageLabel);
+        return messageBox;
+    }
+
+    private static int countNodes(Parent parent) {
+        int count = 1;
+        for (Node child : parent.getChildrenUnmodifiable()) {
+            count += child instanceof Parent ? countNodes((Parent) child) : 1;
+        }
+        return count;
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
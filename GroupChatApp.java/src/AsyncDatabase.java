@@ -0,0 +1,37 @@
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Runs JDBC work on virtual threads so callers (notably the FX thread) never block on MySQL
+public class AsyncDatabase {
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    @FunctionalInterface
+    public interface SqlTask<T> {
+        T call() throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface SqlAction {
+        void run() throws SQLException;
+    }
+
+    public static <T> CompletableFuture<T> supply(SqlTask<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, EXECUTOR);
+    }
+
+    public static CompletableFuture<Void> run(SqlAction action) {
+        return supply(() -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,276 @@
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Verifies logins against PBKDF2 hashes, upgrading legacy plain-text rows on the first good login.
+ *
+ * A successful login leaves an HMAC of (username, password) under a per-process key in a small
+ * LRU cache, so logging back in during the same session skips both MySQL and the slow hash.
+ * Repeated failures for a username are throttled before any of that work is done: each one
+ * doubles the wait before the next attempt (1 s up to 30 s, jittered) instead of locking the
+ * account, so someone guessing at another user's password can delay them by seconds but never
+ * shut them out.
+ *
+ * Every successful login also hands back a random session token. Only its SHA-256 is stored, in
+ * the sessions table, so other processes such as ChatRelayServer can check who a connection
+ * belongs to without ever seeing the password. The app keeps the token across restarts (see
+ * RememberedLogin), and resume() accepts it for one indexed lookup instead of another PBKDF2 run.
+ */
+public class AuthService {
+    private static final int MAX_CACHED_SESSIONS = 64;
+    private static final long SESSION_TTL_MS = 30 * 60 * 1000;
+    private static final int MAX_TRACKED_FAILURES = 1024;
+    private static final long INITIAL_FAILURE_DELAY_MS = 1000;
+    private static final long MAX_FAILURE_DELAY_MS = 30_000;
+    private static final long SESSION_TOKEN_TTL_MS = 30L * 24 * 60 * 60 * 1000;
+    private static final int SESSION_TOKEN_BYTES = 32;
+
+    public interface CredentialStore {
+        String loadPassword(String username) throws SQLException;
+
+        void updatePassword(String username, String storedPassword) throws SQLException;
+
+        void saveSession(String username, String tokenHash, Timestamp expiresAt) throws SQLException;
+
+        // The user an unexpired session belongs to, or null
+        String loadSessionUser(String tokenHash) throws SQLException;
+
+        void deleteSession(String tokenHash) throws SQLException;
+    }
+
+    public enum Status { SUCCESS, INVALID, RATE_LIMITED }
+
+    public static class LoginResult {
+        private final Status status;
+        private final long retryAfterMs;
+        private final String sessionToken;
+
+        LoginResult(Status status, long retryAfterMs, String sessionToken) {
+            this.status = status;
+            this.retryAfterMs = retryAfterMs;
+            this.sessionToken = sessionToken;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public long getRetryAfterMs() {
+            return retryAfterMs;
+        }
+
+        // Set on success; proves the login to the relay
+        public String getSessionToken() {
+            return sessionToken;
+        }
+    }
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final CredentialStore store;
+    private final byte[] processKey = new byte[32];
+    private final Map<String, CachedSession> sessions = new LinkedHashMap<String, CachedSession>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedSession> eldest) {
+            return size() > MAX_CACHED_SESSIONS;
+        }
+    };
+    private final Map<String, Backoff> failures = new LinkedHashMap<String, Backoff>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Backoff> eldest) {
+            return size() > MAX_TRACKED_FAILURES;
+        }
+    };
+
+    public AuthService() {
+        this(new CredentialStore() {
+            @Override
+            public String loadPassword(String username) throws SQLException {
+                return UserRepository.loadPassword(username);
+            }
+
+            @Override
+            public void updatePassword(String username, String storedPassword) throws SQLException {
+                UserRepository.updatePassword(username, storedPassword);
+            }
+
+            @Override
+            public void saveSession(String username, String tokenHash, Timestamp expiresAt) throws SQLException {
+                UserRepository.saveSession(username, tokenHash, expiresAt);
+            }
+
+            @Override
+            public String loadSessionUser(String tokenHash) throws SQLException {
+                return UserRepository.loadSessionUser(tokenHash);
+            }
+
+            @Override
+            public void deleteSession(String tokenHash) throws SQLException {
+                UserRepository.deleteSession(tokenHash);
+            }
+        });
+    }
+
+    public AuthService(CredentialStore store) {
+        this.store = store;
+        new SecureRandom().nextBytes(processKey);
+    }
+
+    // Blocking: call from a background thread
+    public LoginResult login(String username, String password) throws SQLException {
+        long now = System.currentTimeMillis();
+        long retryAfter = retryAfter(username);
+        if (retryAfter > 0) {
+            return new LoginResult(Status.RATE_LIMITED, retryAfter, null);
+        }
+
+        byte[] token = sessionToken(username, password);
+        String cachedSession = cachedSessionToken(username, token, now);
+        if (cachedSession != null) {
+            clearFailures(username);
+            return new LoginResult(Status.SUCCESS, 0, cachedSession);
+        }
+
+        String stored = store.loadPassword(username);
+        boolean valid = PasswordHasher.verify(password, stored == null ? UnknownUser.HASH : stored) && stored != null;
+        if (!valid) {
+            recordFailure(username);
+            return new LoginResult(Status.INVALID, 0, null);
+        }
+
+        if (PasswordHasher.needsRehash(stored)) {
+            store.updatePassword(username, PasswordHasher.hash(password));
+        }
+        clearFailures(username);
+        String issued = issueSession(username, now);
+        synchronized (sessions) {
+            sessions.put(username, new CachedSession(token, issued, now + SESSION_TTL_MS));
+        }
+        return new LoginResult(Status.SUCCESS, 0, issued);
+    }
+
+    // Blocking: signs back in with the token from an earlier login, typically one kept across a restart
+    public LoginResult resume(String username, String sessionToken) throws SQLException {
+        return verifySession(username, sessionToken)
+                ? new LoginResult(Status.SUCCESS, 0, sessionToken)
+                : new LoginResult(Status.INVALID, 0, null);
+    }
+
+    // Blocking: whether the token came from a successful login of this user and has not expired or been revoked
+    public boolean verifySession(String username, String sessionToken) throws SQLException {
+        if (username == null || sessionToken == null) {
+            return false;
+        }
+        return username.equals(store.loadSessionUser(hashToken(sessionToken)));
+    }
+
+    // Blocking: logs the session out everywhere, including on the relay's next connect
+    public void revokeSession(String username, String sessionToken) throws SQLException {
+        invalidate(username);
+        if (sessionToken != null) {
+            store.deleteSession(hashToken(sessionToken));
+        }
+    }
+
+    public void invalidate(String username) {
+        synchronized (sessions) {
+            sessions.remove(username);
+        }
+    }
+
+    private String issueSession(String username, long now) throws SQLException {
+        byte[] bytes = new byte[SESSION_TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String sessionToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        store.saveSession(username, hashToken(sessionToken), new Timestamp(now + SESSION_TOKEN_TTL_MS));
+        return sessionToken;
+    }
+
+    private String cachedSessionToken(String username, byte[] token, long now) {
+        synchronized (sessions) {
+            CachedSession session = sessions.get(username);
+            if (session == null) {
+                return null;
+            }
+            if (session.expiresAt <= now) {
+                sessions.remove(username);
+                return null;
+            }
+            return MessageDigest.isEqual(session.token, token) ? session.sessionToken : null;
+        }
+    }
+
+    private long retryAfter(String username) {
+        synchronized (failures) {
+            Backoff backoff = failures.get(username);
+            return backoff == null ? 0 : backoff.remainingDelayMs();
+        }
+    }
+
+    private void recordFailure(String username) {
+        synchronized (failures) {
+            failures.computeIfAbsent(username, name -> new Backoff(INITIAL_FAILURE_DELAY_MS, MAX_FAILURE_DELAY_MS))
+                    .recordFailure();
+        }
+    }
+
+    private void clearFailures(String username) {
+        synchronized (failures) {
+            failures.remove(username);
+        }
+    }
+
+    // Tokens are long and random, so a plain SHA-256 is enough to keep a leaked table from being replayable
+    private static String hashToken(String sessionToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sessionToken.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private byte[] sessionToken(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(processKey, "HmacSHA256"));
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    // Unknown users still pay for a hash so response time does not reveal which names exist.
+    // Held lazily so the first real login does not pay for building it.
+    private static class UnknownUser {
+        private static final String HASH = PasswordHasher.hash("unknown-user");
+    }
+
+    private static class CachedSession {
+        private final byte[] token;
+        private final String sessionToken;
+        private final long expiresAt;
+
+        CachedSession(byte[] token, String sessionToken, long expiresAt) {
+            this.token = token;
+            this.sessionToken = sessionToken;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter for background work that talks to MySQL.
+ *
+ * Each failure doubles the delay up to a ceiling, and the actual wait is drawn from the upper
+ * half of that window, so clients that lost the database at the same moment spread their retries
+ * out instead of reconnecting in lockstep when it comes back.
+ */
+public class Backoff {
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+    private long delayMs;
+    private long nextAttemptAt;
+
+    public Backoff(long initialDelayMs, long maxDelayMs) {
+        this.initialDelayMs = initialDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.delayMs = initialDelayMs;
+    }
+
+    // Returns how long to wait before the next attempt
+    public synchronized long recordFailure() {
+        long wait = delayMs / 2 + ThreadLocalRandom.current().nextLong(delayMs / 2 + 1);
+        delayMs = Math.min(delayMs * 2, maxDelayMs);
+        nextAttemptAt = System.currentTimeMillis() + wait;
+        return wait;
+    }
+
+    public synchronized void recordSuccess() {
+        delayMs = initialDelayMs;
+        nextAttemptAt = 0;
+    }
+
+    // For fixed-rate schedulers: ticks that fall inside the backoff window are skipped
+    public synchronized boolean isReady() {
+        return System.currentTimeMillis() >= nextAttemptAt;
+    }
+
+    public synchronized long remainingDelayMs() {
+        return Math.max(0, nextAttemptAt - System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,338 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the messages table to and from gzip-compressed NDJSON chunks in constant memory.
+ *
+ * Export reads with a forward-only streaming ResultSet (fetch size Integer.MIN_VALUE), so
+ * Connector/J hands rows over one at a time instead of buffering the table. Import replays
+ * the chunks as multi-row INSERTs of IMPORT_BATCH_SIZE rows. Rows whose id or client_id already
+ * exist are skipped (ON DUPLICATE KEY UPDATE id = id), so an interrupted import can be rerun; any
+ * other error, such as a sender or room that no longer exists, stops the import instead of
+ * dropping the row the way INSERT IGNORE would. The connection reports affected rather than found
+ * rows, so each statement's update count is exactly the number of rows it inserted.
+ * Messages hidden by a room clear are not exported, even if HistoryPurger has not deleted them yet.
+ *
+ * Usage:
+ *   java ChatArchive export <dir> [rowsPerChunk]
+ *   java ChatArchive import <dir> [--new-ids]
+ */
+public class ChatArchive {
+    private static final String CHUNK_PREFIX = "messages-";
+    private static final String CHUNK_SUFFIX = ".ndjson.gz";
+    private static final int DEFAULT_ROWS_PER_CHUNK = 100_000;
+    private static final int IMPORT_BATCH_SIZE = 1000;
+    private static final int GZIP_BUFFER_BYTES = 64 * 1024;
+
+    public static long export(Path directory, int rowsPerChunk) throws SQLException, IOException {
+        Files.createDirectories(directory);
+        long rows = 0;
+        int chunk = 0;
+        BufferedWriter out = null;
+        Path partial = null;
+        StringBuilder line = new StringBuilder(512);
+
+        try (Connection conn = DatabaseConnector.openDirectConnection();
+             Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT m.id, m.client_id, m.room_id, m.sender, m.content, m.timestamp FROM messages m " +
+                            "JOIN rooms r ON r.id = m.room_id WHERE m.id > r.cleared_before_id ORDER BY m.id")) {
+                while (rs.next()) {
+                    if (out == null) {
+                        partial = directory.resolve(chunkName(++chunk) + ".partial");
+                        out = openChunk(partial);
+                    }
+
+                    line.setLength(0);
+                    line.append("{\"id\":").append(rs.getLong(1));
+                    appendField(line, "client_id", rs.getString(2));
+                    line.append(",\"room_id\":").append(rs.getInt(3));
+                    appendField(line, "sender", rs.getString(4));
+                    appendField(line, "content", rs.getString(5));
+                    Timestamp timestamp = rs.getTimestamp(6);
+                    appendField(line, "timestamp", timestamp == null ? null : timestamp.toLocalDateTime().toString());
+                    line.append("}\n");
+                    out.append(line);
+                    rows++;
+
+                    if (rows % rowsPerChunk == 0) {
+                        finishChunk(out, partial, chunk);
+                        out = null;
+                        System.out.printf("exported %d rows%n", rows);
+                    }
+                }
+            }
+            if (out != null) {
+                finishChunk(out, partial, chunk);
+                out = null;
+            }
+        } finally {
+            if (out != null) {
+                out.close();
+                Files.deleteIfExists(partial);
+            }
+        }
+        return rows;
+    }
+
+    // Returns the number of rows inserted; rows that were already there are reported and not counted
+    public static long importChunks(Path directory, boolean keepIds) throws SQLException, IOException {
+        List<Path> chunks = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, CHUNK_PREFIX + "*" + CHUNK_SUFFIX)) {
+            stream.forEach(chunks::add);
+        }
+        chunks.sort(null);
+
+        // Without this, ON DUPLICATE KEY UPDATE counts an existing row as 1 even when nothing changes
+        Properties affectedRows = new Properties();
+        affectedRows.setProperty("useAffectedRows", "true");
+        List<Map<String, String>> pending = new ArrayList<>(IMPORT_BATCH_SIZE);
+        long read = 0;
+        long imported = 0;
+
+        try (Connection conn = DatabaseConnector.openDirectConnection(affectedRows);
+             PreparedStatement fullBatch = conn.prepareStatement(insertSql(keepIds, IMPORT_BATCH_SIZE))) {
+            conn.setAutoCommit(false);
+            for (Path chunk : chunks) {
+                try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(Files.newInputStream(chunk), GZIP_BUFFER_BYTES), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        if (line.isEmpty()) {
+                            continue;
+                        }
+                        pending.add(parseObject(line));
+                        read++;
+
+                        if (pending.size() == IMPORT_BATCH_SIZE) {
+                            imported += insertRows(fullBatch, pending, keepIds, chunk);
+                            conn.commit();
+                            pending.clear();
+                        }
+                    }
+                }
+                System.out.printf("imported %s (%d rows so far, %d already present)%n",
+                        chunk.getFileName(), imported, read - pending.size() - imported);
+            }
+            if (!pending.isEmpty()) {
+                try (PreparedStatement lastBatch = conn.prepareStatement(insertSql(keepIds, pending.size()))) {
+                    imported += insertRows(lastBatch, pending, keepIds, chunks.get(chunks.size() - 1));
+                }
+                conn.commit();
+            }
+        }
+        if (read > imported) {
+            System.out.printf("skipped %d rows that were already present%n", read - imported);
+        }
+        return imported;
+    }
+
+    private static String insertSql(boolean keepIds, int rows) {
+        String senderId = "(SELECT id FROM users WHERE username = ?)";
+        String row = keepIds
+                ? "(?, ?, ?, ?, " + senderId + ", ?, ?)"
+                : "(?, ?, ?, " + senderId + ", ?, ?)";
+        StringBuilder sql = new StringBuilder(keepIds
+                ? "INSERT INTO messages (id, client_id, room_id, sender, sender_id, content, timestamp) VALUES "
+                : "INSERT INTO messages (client_id, room_id, sender, sender_id, content, timestamp) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ").append(row);
+        }
+        return sql.append(" ON DUPLICATE KEY UPDATE id = id").toString();
+    }
+
+    // One multi-row INSERT; returns how many of the rows were new
+    private static int insertRows(PreparedStatement stmt, List<Map<String, String>> rows, boolean keepIds, Path chunk)
+            throws SQLException {
+        int column = 1;
+        for (Map<String, String> row : rows) {
+            if (keepIds) {
+                stmt.setLong(column++, Long.parseLong(row.get("id")));
+            }
+            stmt.setString(column++, row.get("client_id"));
+            // Archives written before rooms existed have no room_id
+            String roomId = row.get("room_id");
+            stmt.setInt(column++, roomId == null ? Room.DEFAULT_ID : Integer.parseInt(roomId));
+            stmt.setString(column++, row.get("sender"));
+            stmt.setString(column++, row.get("sender"));
+            stmt.setString(column++, row.get("content"));
+            String timestamp = row.get("timestamp");
+            stmt.setTimestamp(column++, timestamp == null ? null : Timestamp.valueOf(LocalDateTime.parse(timestamp)));
+        }
+        try {
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            // Everything committed before this batch stays; a rerun skips it and retries from here
+            throw new SQLException("Import stopped in " + chunk.getFileName() + ": " + e.getMessage(),
+                    e.getSQLState(), e.getErrorCode(), e);
+        }
+    }
+
+    private static BufferedWriter openChunk(Path path) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(path), GZIP_BUFFER_BYTES), StandardCharsets.UTF_8),
+                GZIP_BUFFER_BYTES);
+    }
+
+    // Chunks only get their final name once complete, so a crashed export never leaves a truncated one
+    private static void finishChunk(BufferedWriter out, Path partial, int chunk) throws IOException {
+        out.close();
+        Files.move(partial, partial.resolveSibling(chunkName(chunk)), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String chunkName(int chunk) {
+        return String.format("%s%06d%s", CHUNK_PREFIX, chunk, CHUNK_SUFFIX);
+    }
+
+    private static void appendField(StringBuilder line, String name, String value) {
+        line.append(",\"").append(name).append("\":");
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': line.append("\\\""); break;
+                case '\\': line.append("\\\\"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case '\t': line.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    // Parses the flat objects export writes: string, number and null values only
+    static Map<String, String> parseObject(String line) {
+        Map<String, String> values = new HashMap<>();
+        int[] pos = {skipWhitespace(line, 0)};
+        expect(line, pos, '{');
+        if (peek(line, pos) == '}') {
+            return values;
+        }
+        while (true) {
+            String name = readString(line, pos);
+            expect(line, pos, ':');
+            pos[0] = skipWhitespace(line, pos[0]);
+            char c = line.charAt(pos[0]);
+            if (c == '"') {
+                values.put(name, readString(line, pos));
+            } else if (line.startsWith("null", pos[0])) {
+                values.put(name, null);
+                pos[0] += 4;
+            } else {
+                int start = pos[0];
+                while (pos[0] < line.length() && "-+.eE0123456789".indexOf(line.charAt(pos[0])) >= 0) {
+                    pos[0]++;
+                }
+                if (start == pos[0]) {
+                    throw new IllegalArgumentException("Unexpected value at " + start + ": " + line);
+                }
+                values.put(name, line.substring(start, pos[0]));
+            }
+            if (peek(line, pos) == ',') {
+                pos[0]++;
+                continue;
+            }
+            expect(line, pos, '}');
+            return values;
+        }
+    }
+
+    private static String readString(String line, int[] pos) {
+        expect(line, pos, '"');
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            char c = line.charAt(pos[0]++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            char escaped = line.charAt(pos[0]++);
+            switch (escaped) {
+                case 'n': value.append('\n'); break;
+                case 'r': value.append('\r'); break;
+                case 't': value.append('\t'); break;
+                case 'b': value.append('\b'); break;
+                case 'f': value.append('\f'); break;
+                case 'u':
+                    value.append((char) Integer.parseInt(line.substring(pos[0], pos[0] + 4), 16));
+                    pos[0] += 4;
+                    break;
+                default: value.append(escaped);
+            }
+        }
+    }
+
+    private static char peek(String line, int[] pos) {
+        pos[0] = skipWhitespace(line, pos[0]);
+        return pos[0] < line.length() ? line.charAt(pos[0]) : 0;
+    }
+
+    private static void expect(String line, int[] pos, char expected) {
+        if (peek(line, pos) != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' at " + pos[0] + ": " + line);
+        }
+        pos[0]++;
+    }
+
+    private static int skipWhitespace(String line, int pos) {
+        while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: ChatArchive export <dir> [rowsPerChunk] | import <dir> [--new-ids]");
+            System.exit(2);
+        }
+
+        Path directory = Paths.get(args[1]);
+        long start = System.nanoTime();
+        long rows;
+        if (args[0].equals("export")) {
+            rows = export(directory, args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ROWS_PER_CHUNK);
+        } else if (args[0].equals("import")) {
+            rows = importChunks(directory, !(args.length > 2 && args[2].equals("--new-ids")));
+        } else {
+            System.err.println("Unknown command: " + args[0]);
+            System.exit(2);
+            return;
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%s: %d rows in %.1fs (%.0f rows/s)%n", args[0], rows, seconds, rows / Math.max(seconds, 1e-9));
+    }
+}
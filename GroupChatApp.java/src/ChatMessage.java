@@ -0,0 +1,97 @@
+import java.time.LocalDateTime;
+
+public class ChatMessage {
+    // Only tracked for messages sent from this client; everything else has no delivery state
+    public enum Delivery {
+        PENDING, DELIVERED, FAILED
+    }
+
+    private final long id;
+    private final String clientId;
+    private final int roomId;
+    private final String sender;
+    private final String content;
+    private final LocalDateTime timestamp;
+    private final Delivery delivery;
+    // Numbers the sends of one message so callbacks from an earlier attempt can be told apart
+    private final int deliveryAttempt;
+
+    public ChatMessage(long id, String sender, String content, LocalDateTime timestamp) {
+        this(id, null, sender, content, timestamp);
+    }
+
+    public ChatMessage(long id, String clientId, String sender, String content, LocalDateTime timestamp) {
+        this(id, clientId, Room.DEFAULT_ID, sender, content, timestamp);
+    }
+
+    public ChatMessage(long id, String clientId, int roomId, String sender, String content, LocalDateTime timestamp) {
+        this(id, clientId, roomId, sender, content, timestamp, null, 0);
+    }
+
+    private ChatMessage(long id, String clientId, int roomId, String sender, String content, LocalDateTime timestamp,
+                        Delivery delivery, int deliveryAttempt) {
+        this.id = id;
+        this.clientId = clientId;
+        this.roomId = roomId;
+        this.sender = sender;
+        this.content = content;
+        this.timestamp = timestamp;
+        this.delivery = delivery;
+        this.deliveryAttempt = deliveryAttempt;
+    }
+
+    // An optimistic local copy, shown before the relay or the database has accepted it
+    public static ChatMessage pending(String clientId, int roomId, String sender, String content) {
+        return new ChatMessage(0, clientId, roomId, sender, content, LocalDateTime.now(), Delivery.PENDING, 1);
+    }
+
+    // System notices have no sender and are never persisted
+    public static ChatMessage system(String content) {
+        return new ChatMessage(0, null, content, LocalDateTime.now());
+    }
+
+    public boolean isSystem() {
+        return sender == null;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public int getRoomId() {
+        return roomId;
+    }
+
+    public String getSender() {
+        return sender;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public Delivery getDelivery() {
+        return delivery;
+    }
+
+    public int getDeliveryAttempt() {
+        return deliveryAttempt;
+    }
+
+    public ChatMessage withDelivery(Delivery delivery) {
+        return new ChatMessage(id, clientId, roomId, sender, content, timestamp, delivery, deliveryAttempt);
+    }
+
+    // Pending again under a new attempt number
+    public ChatMessage nextAttempt() {
+        return new ChatMessage(id, clientId, roomId, sender, content, timestamp, Delivery.PENDING, deliveryAttempt + 1);
+    }
+}
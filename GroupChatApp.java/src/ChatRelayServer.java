@@ -0,0 +1,225 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Fans chat messages out to every connected GroupChatApp client over plain TCP, one virtual
+ * thread per socket direction. MySQL is only written for durable history, through the same
+ * batched MessageWriter the clients use, so database load does not depend on client count.
+ *
+ * Protocol (one LineCodec record per line):
+ *   client -> relay: HELLO user sessionToken | ROOM roomId | MSG clientId roomId content
+ *   relay -> client: ACK clientId | MSG clientId roomId sender epochMillis content | DENIED
+ * HELLO must carry a session token from AuthService.login for that user; otherwise the relay
+ * answers DENIED and hangs up. ROOM and MSG are ignored until HELLO has been accepted, as are
+ * malformed lines. A client only receives messages for the room it last subscribed to with ROOM.
+ * An ACK is sent once the message is journaled on the relay, so it will reach MySQL.
+ *
+ * Usage: java ChatRelayServer [port]
+ */
+public class ChatRelayServer {
+    public static final int DEFAULT_PORT = 5050;
+    private static final int CLIENT_QUEUE_CAPACITY = 1000;
+
+    private final int port;
+    private final MessageWriter writer;
+    private final AuthService auth;
+    private final Set<ClientConnection> clients = ConcurrentHashMap.newKeySet();
+    private volatile ServerSocket serverSocket;
+
+    public ChatRelayServer(int port, MessageWriter writer, AuthService auth) {
+        this.port = port;
+        this.writer = writer;
+        this.auth = auth;
+    }
+
+    public void run() throws IOException {
+        serverSocket = new ServerSocket(port);
+        System.out.println("Chat relay listening on port " + port);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (!serverSocket.isClosed()) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketException e) {
+                    // Server socket closed by stop()
+                    break;
+                }
+                socket.setTcpNoDelay(true);
+                ClientConnection client = new ClientConnection(socket);
+                executor.execute(client::readLoop);
+                executor.execute(client::writeLoop);
+            }
+            for (ClientConnection client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    public void stop() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void broadcast(ClientConnection from, int roomId, String line) {
+        for (ClientConnection client : clients) {
+            if (client != from && client.roomId == roomId) {
+                client.send(line);
+            }
+        }
+    }
+
+    private class ClientConnection {
+        private static final String CLOSE = "";
+
+        private final Socket socket;
+        // Bounded so one slow client cannot hold an unbounded backlog; it is dropped instead
+        private final BlockingQueue<String> outbox = new LinkedBlockingQueue<>(CLIENT_QUEUE_CAPACITY);
+        private String username;
+        private volatile int roomId;
+
+        ClientConnection(Socket socket) {
+            this.socket = socket;
+        }
+
+        void send(String line) {
+            if (!outbox.offer(line)) {
+                System.err.println("Dropping slow relay client " + username);
+                close();
+            }
+        }
+
+        void readLoop() {
+            boolean denied = false;
+            // Not closed here: closing a socket stream closes the socket, which close() or the writer does
+            try {
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                String line;
+                while (!denied && (line = reader.readLine()) != null) {
+                    try {
+                        denied = !handle(LineCodec.split(line));
+                    } catch (NumberFormatException e) {
+                        // Malformed line; skip it and keep the connection
+                    }
+                }
+            } catch (IOException e) {
+                // Client went away
+            } finally {
+                if (denied) {
+                    // Let the writer deliver DENIED before it closes the socket
+                    outbox.offer(CLOSE);
+                } else {
+                    close();
+                }
+            }
+        }
+
+        // Returns false once the connection should be closed
+        private boolean handle(String[] fields) throws IOException {
+            if (fields[0].equals("HELLO") && fields.length == 3 && username == null) {
+                if (!isValidSession(fields[1], fields[2])) {
+                    send(LineCodec.join("DENIED"));
+                    return false;
+                }
+                username = fields[1];
+                clients.add(this);
+            } else if (username == null) {
+                // Nothing but HELLO until the session is verified
+                return true;
+            } else if (fields[0].equals("ROOM") && fields.length == 2) {
+                roomId = Integer.parseInt(fields[1]);
+            } else if (fields[0].equals("MSG") && fields.length == 4) {
+                String clientId = fields[1];
+                int messageRoom = Integer.parseInt(fields[2]);
+                String content = fields[3];
+                broadcast(this, messageRoom, LineCodec.join("MSG", clientId, fields[2], username,
+                        Long.toString(System.currentTimeMillis()), content));
+                writer.enqueue(clientId, messageRoom, username, content);
+                send(LineCodec.join("ACK", clientId));
+            }
+            return true;
+        }
+
+        // A database error is not a verdict on the token: drop the connection and let the client retry
+        private boolean isValidSession(String user, String token) throws IOException {
+            try {
+                return auth.verifySession(user, token);
+            } catch (SQLException e) {
+                throw new IOException("Could not verify session for " + user, e);
+            }
+        }
+
+        void writeLoop() {
+            try (BufferedWriter out = new BufferedWriter(
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+                while (true) {
+                    String line = outbox.take();
+                    if (line == CLOSE) {
+                        return;
+                    }
+                    out.write(line);
+                    out.newLine();
+                    // Coalesce whatever else is already queued into the same flush
+                    if (outbox.isEmpty()) {
+                        out.flush();
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                close();
+            }
+        }
+
+        void close() {
+            clients.remove(this);
+            outbox.clear();
+            outbox.offer(CLOSE);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } catch (ClassNotFoundException e) {
+            e.printStackTrace();
+        }
+        DatabaseConnector.initializeDatabase();
+
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        MessageWriter writer = new MessageWriter(
+                Paths.get(System.getProperty("user.home"), ".groupchat", "relay-outbox.journal"),
+                error -> System.err.println("Relay persistence delayed: " + error.getMessage()));
+        ChatRelayServer server = new ChatRelayServer(port, writer, new AuthService());
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            writer.shutdown(5000);
+            DatabaseConnector.shutdown();
+        }));
+
+        server.run();
+    }
+}
@@ -0,0 +1,68 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Transcript stylesheet, generated once from the member colors and installed as a data URI,
+ * so message rows only toggle style classes instead of parsing inline -fx-* strings.
+ */
+public final class ChatStyles {
+    public static final String BUBBLE = "message-bubble";
+    public static final String SYSTEM_BUBBLE = "system-bubble";
+    public static final String UNKNOWN_MEMBER = "member-unknown";
+
+    private static final String UNKNOWN_COLOR = "#BDC3C7";
+    private static final Map<String, String> MEMBER_CLASSES = new ConcurrentHashMap<>();
+    private static final Map<Map<String, String>, String> STYLESHEETS = new ConcurrentHashMap<>();
+
+    private ChatStyles() {
+    }
+
+    public static String stylesheet(Map<String, String> memberColors) {
+        return STYLESHEETS.computeIfAbsent(Map.copyOf(memberColors), colors -> "data:text/css;base64,"
+                + Base64.getEncoder().encodeToString(buildCss(colors).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static String memberClass(String sender) {
+        if (sender == null) {
+            return UNKNOWN_MEMBER;
+        }
+        return MEMBER_CLASSES.computeIfAbsent(sender, name ->
+                "member-" + name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-"));
+    }
+
+    static String buildCss(Map<String, String> memberColors) {
+        StringBuilder css = new StringBuilder();
+        css.append(".message-cell { -fx-background-color: transparent; -fx-padding: 5px 0; }\n")
+                .append(".message-bubble { -fx-background-color: #1a1a1a; -fx-background-radius: 10px; ")
+                .append("-fx-padding: 15px; -fx-border-width: 1.5px; -fx-border-radius: 10px; ")
+                .append("-fx-border-color: ").append(UNKNOWN_COLOR).append("; }\n")
+                .append(".message-bubble .sender { -fx-font-weight: bold; -fx-font-size: 15px; ")
+                .append("-fx-text-fill: ").append(UNKNOWN_COLOR).append("; }\n")
+                .append(".message-bubble .time { -fx-text-fill: #BDC3C7; -fx-font-size: 11px; }\n")
+                .append(".message-bubble .body { -fx-text-fill: white; -fx-font-size: 14px; -fx-line-spacing: 2px; }\n")
+                .append(".message-bubble .body-text { -fx-fill: white; -fx-font-size: 14px; }\n")
+                .append(".message-bubble .match { -fx-fill: #F1C40F; -fx-font-size: 14px; ")
+                .append("-fx-font-weight: bold; -fx-underline: true; }\n")
+                .append(".message-bubble .status { -fx-font-size: 11px; -fx-text-fill: #95A5A6; }\n")
+                .append(".message-bubble .status.delivered { -fx-text-fill: #2ECC71; }\n")
+                .append(".message-bubble .status.failed { -fx-text-fill: #E74C3C; -fx-font-weight: bold; ")
+                .append("-fx-underline: true; -fx-cursor: hand; }\n")
+                .append(".system-bubble { -fx-background-color: rgba(52, 152, 219, 0.1); -fx-background-radius: 8px; ")
+                .append("-fx-padding: 10px; -fx-alignment: center; -fx-border-color: #3498DB; ")
+                .append("-fx-border-width: 1px; -fx-border-radius: 8px; }\n")
+                .append(".system-bubble .label { -fx-text-fill: #3498DB; -fx-font-size: 13px; ")
+                .append("-fx-font-style: italic; -fx-font-weight: bold; }\n");
+
+        for (Map.Entry<String, String> member : memberColors.entrySet()) {
+            String selector = "." + memberClass(member.getKey());
+            css.append(".message-bubble").append(selector)
+                    .append(" { -fx-border-color: ").append(member.getValue()).append("; }\n")
+                    .append(".message-bubble").append(selector)
+                    .append(" .sender { -fx-text-fill: ").append(member.getValue()).append("; }\n");
+        }
+        return css.toString();
+    }
+}
@@ -0,0 +1,389 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small embedded JDBC connection pool. Borrowed connections are proxies whose close()
+ * hands the physical connection back to the pool instead of closing the socket.
+ *
+ * Statement executions, commits and rollbacks made through borrowed connections are counted
+ * as round trips, in total and per calling thread, so callers can attribute database work.
+ */
+public class ConnectionPool {
+    private static final long BORROW_TIMEOUT_MS = 5000;
+    private static final long MAX_IDLE_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final long VALIDATE_AFTER_IDLE_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long LEAK_THRESHOLD_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final long HOUSEKEEPING_INTERVAL_MS = TimeUnit.SECONDS.toMillis(5);
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+
+    // Most recently returned connections sit at the head so the warmest one is reused first
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Map<PooledConnection, Boolean> borrowed = new ConcurrentHashMap<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowNanosTotal = new AtomicLong();
+    private final AtomicLong borrowNanosMax = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong roundTripCount = new AtomicLong();
+    private final ThreadLocal<long[]> threadRoundTrips = ThreadLocal.withInitial(() -> new long[1]);
+
+    private volatile boolean shutdown;
+
+    public ConnectionPool(String url, String user, String password, int maxSize) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_INTERVAL_MS, HOUSEKEEPING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection borrow() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool is shut down");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(BORROW_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Timed out waiting for a database connection (pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(DriverManager.getConnection(url, user, password));
+                createdCount.incrementAndGet();
+            }
+
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowSite = new Throwable("Connection borrowed here");
+            pooled.leakReported = false;
+            borrowed.put(pooled, Boolean.TRUE);
+
+            recordBorrow(System.nanoTime() - start);
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public Stats getStats() {
+        long count = borrowCount.get();
+        return new Stats(borrowed.size(), idle.size(), createdCount.get(), count,
+                count == 0 ? 0 : borrowNanosTotal.get() / count, borrowNanosMax.get(), leakCount.get(),
+                roundTripCount.get());
+    }
+
+    // Round trips made by the calling thread since it first used the pool
+    public long getRoundTripsOnCurrentThread() {
+        return threadRoundTrips.get()[0];
+    }
+
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            closeQuietly(pooled.physical);
+        }
+    }
+
+    private PooledConnection takeIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            long idleFor = System.currentTimeMillis() - pooled.returnedAt;
+            if (idleFor > MAX_IDLE_MS) {
+                closeQuietly(pooled.physical);
+                continue;
+            }
+            // Only pay for a validation round trip when the connection has been sitting a while
+            if (idleFor > VALIDATE_AFTER_IDLE_MS && !isValid(pooled.physical)) {
+                closeQuietly(pooled.physical);
+                continue;
+            }
+            return pooled;
+        }
+        return null;
+    }
+
+    private void release(PooledConnection pooled) {
+        borrowed.remove(pooled);
+        try {
+            Connection physical = pooled.physical;
+            if (physical.isClosed()) {
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (shutdown) {
+                closeQuietly(physical);
+                return;
+            }
+            pooled.returnedAt = System.currentTimeMillis();
+            pooled.borrowSite = null;
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            closeQuietly(pooled.physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        for (PooledConnection pooled : borrowed.keySet()) {
+            if (!pooled.leakReported && now - pooled.borrowedAt > LEAK_THRESHOLD_MS) {
+                pooled.leakReported = true;
+                leakCount.incrementAndGet();
+                Throwable site = pooled.borrowSite;
+                System.err.println("Possible connection leak: held for " + (now - pooled.borrowedAt) + " ms");
+                if (site != null) {
+                    site.printStackTrace();
+                }
+            }
+        }
+
+        // Idle connections are ordered newest first, so expired ones collect at the tail
+        PooledConnection oldest;
+        while ((oldest = idle.peekLast()) != null && now - oldest.returnedAt > MAX_IDLE_MS) {
+            if (idle.removeLastOccurrence(oldest)) {
+                closeQuietly(oldest.physical);
+            }
+        }
+    }
+
+    private void recordRoundTrip() {
+        roundTripCount.incrementAndGet();
+        threadRoundTrips.get()[0]++;
+    }
+
+    private void recordBorrow(long nanos) {
+        borrowCount.incrementAndGet();
+        borrowNanosTotal.addAndGet(nanos);
+        borrowNanosMax.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private class PooledConnection {
+        private final Connection physical;
+        private volatile long borrowedAt;
+        private volatile long returnedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    // One handle per borrow, so a stale reference cannot touch a connection someone else now holds
+    private class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final List<Statement> statements = new ArrayList<>();
+        private boolean closed;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        // Statements the caller forgot to close would otherwise pile up on the physical connection
+                        for (Statement statement : statements) {
+                            try {
+                                statement.close();
+                            } catch (SQLException ignored) {
+                            }
+                        }
+                        statements.clear();
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("Connection is closed");
+                    }
+                    if (method.getName().equals("commit") || method.getName().equals("rollback")) {
+                        recordRoundTrip();
+                    }
+                    try {
+                        Object result = method.invoke(pooled.physical, args);
+                        if (result instanceof Statement) {
+                            statements.add((Statement) result);
+                            return Proxy.newProxyInstance(
+                                    Statement.class.getClassLoader(),
+                                    new Class<?>[]{method.getReturnType()},
+                                    new CountingStatement((Statement) result));
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    // Counts executions; a JDBC batch is one round trip with rewriteBatchedStatements
+    private class CountingStatement implements InvocationHandler {
+        private final Statement statement;
+
+        CountingStatement(Statement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    if (method.getName().startsWith("execute")) {
+                        recordRoundTrip();
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    public static class Stats {
+        private final int active;
+        private final int idle;
+        private final long created;
+        private final long borrows;
+        private final long averageBorrowNanos;
+        private final long maxBorrowNanos;
+        private final long leaks;
+        private final long roundTrips;
+
+        Stats(int active, int idle, long created, long borrows, long averageBorrowNanos, long maxBorrowNanos, long leaks,
+              long roundTrips) {
+            this.active = active;
+            this.idle = idle;
+            this.created = created;
+            this.borrows = borrows;
+            this.averageBorrowNanos = averageBorrowNanos;
+            this.maxBorrowNanos = maxBorrowNanos;
+            this.leaks = leaks;
+            this.roundTrips = roundTrips;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        public long getBorrows() {
+            return borrows;
+        }
+
+        public long getAverageBorrowNanos() {
+            return averageBorrowNanos;
+        }
+
+        public long getMaxBorrowNanos() {
+            return maxBorrowNanos;
+        }
+
+        public long getLeaks() {
+            return leaks;
+        }
+
+        public long getRoundTrips() {
+            return roundTrips;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d idle=%d created=%d borrows=%d avgBorrow=%.3fms maxBorrow=%.3fms leaks=%d " +
+                            "roundTrips=%d", active, idle, created, borrows, averageBorrowNanos / 1e6, maxBorrowNanos / 1e6,
+                    leaks, roundTrips);
+        }
+    }
+}
@@ -1,31 +1,54 @@
 import java.sql.*;
+import java.util.Properties;
 
 public class DatabaseConnector {
-    private static final String URL = "jdbc:mysql://localhost:3306/group_chat";
-    private static final String USER = "root";
-    private static final String PASSWORD = "";
+    // rewriteBatchedStatements turns a JDBC insert batch into a single multi-row INSERT
+    private static final String URL = System.getProperty("groupchat.db.url",
+            "jdbc:mysql://localhost:3306/group_chat?rewriteBatchedStatements=true");
+    private static final String USER = System.getProperty("groupchat.db.user", "root");
+    private static final String PASSWORD = System.getProperty("groupchat.db.password", "");
+    private static final int POOL_SIZE = Integer.getInteger("groupchat.db.poolSize", 10);
 
+    private static final ConnectionPool POOL = new ConnectionPool(URL, USER, PASSWORD, POOL_SIZE);
+
+    // Callers still close() the connection; that returns it to the pool
     public static Connection getConnection() throws SQLException {
+        return POOL.borrow();
+    }
+
+    // Unpooled connection for long bulk jobs that would otherwise trip the pool's leak detection
+    public static Connection openDirectConnection() throws SQLException {
         return DriverManager.getConnection(URL, USER, PASSWORD);
     }
 
+    // The same, with extra Connector/J properties for this connection only
+    public static Connection openDirectConnection(Properties properties) throws SQLException {
+        Properties all = new Properties();
+        all.putAll(properties);
+        all.setProperty("user", USER);
+        all.setProperty("password", PASSWORD);
+        return DriverManager.getConnection(URL, all);
+    }
+
+    public static ConnectionPool.Stats getPoolStats() {
+        return POOL.getStats();
+    }
+
+    // Lets load tests attribute round trips to the user action that caused them
+    public static long getRoundTripsOnCurrentThread() {
+        return POOL.getRoundTripsOnCurrentThread();
+    }
+
+    public static void shutdown() {
+        POOL.shutdown();
+    }
+
     public static void initializeDatabase() {
         try (Connection conn = getConnection()) {
-            // Create tables if they don't exist
+            // Creates or upgrades tables and indexes; a single lookup once the schema is current
+            SchemaMigrator.migrate(conn);
+
             Statement stmt = conn.createStatement();
-            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS users (" +
-                    "id INT AUTO_INCREMENT PRIMARY KEY, " +
-                    "username VARCHAR(50) NOT NULL UNIQUE, " +
-                    "password VARCHAR(255) NOT NULL, " +
-                    "color VARCHAR(7) NOT NULL, " +
-                    "last_online TIMESTAMP)");
-
-            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS messages (" +
-                    "id INT AUTO_INCREMENT PRIMARY KEY, " +
-                    "sender VARCHAR(50) NOT NULL, " +
-                    "content TEXT NOT NULL, " +
-                    "timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                    "FOREIGN KEY (sender) REFERENCES users(username))");
 
             // Initialize users if table is empty
             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM users");
@@ -40,7 +63,7 @@ public class DatabaseConnector {
 
                 for (int i = 0; i < members.length; i++) {
                     insertUser.setString(1, members[i]);
-                    insertUser.setString(2, passwords[i]);
+                    insertUser.setString(2, PasswordHasher.hash(passwords[i]));
                     insertUser.setString(3, colors[i]);
                     insertUser.executeUpdate();
                 }
@@ -49,4 +72,4 @@ public class DatabaseConnector {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Whether the background workers can currently reach MySQL; listeners hear only about transitions
+public final class DatabaseHealth {
+    private static final List<Consumer<Boolean>> LISTENERS = new CopyOnWriteArrayList<>();
+    private static volatile boolean online = true;
+
+    private DatabaseHealth() {
+    }
+
+    public static boolean isOnline() {
+        return online;
+    }
+
+    public static void addListener(Consumer<Boolean> listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(Consumer<Boolean> listener) {
+        LISTENERS.remove(listener);
+    }
+
+    public static void reportSuccess() {
+        changeState(true);
+    }
+
+    public static void reportFailure() {
+        changeState(false);
+    }
+
+    private static void changeState(boolean nowOnline) {
+        synchronized (DatabaseHealth.class) {
+            if (online == nowOnline) {
+                return;
+            }
+            online = nowOnline;
+        }
+        for (Consumer<Boolean> listener : LISTENERS) {
+            listener.accept(nowOnline);
+        }
+    }
+}
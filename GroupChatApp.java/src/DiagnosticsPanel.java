@@ -0,0 +1,85 @@
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.util.Locale;
+
+// Hidden diagnostics window (Ctrl+Shift+D) with live per-operation latency percentiles
+public class DiagnosticsPanel {
+    private final Stage stage = new Stage();
+    private final Label table = new Label();
+    private final Timeline refresher = new Timeline(new KeyFrame(Duration.seconds(1), e -> refresh()));
+
+    public DiagnosticsPanel(Window owner) {
+        stage.initOwner(owner);
+        stage.setTitle("Diagnostics");
+
+        table.setStyle("-fx-font-family: monospace; -fx-font-size: 12px; -fx-text-fill: #ECF0F1;");
+
+        Button resetButton = new Button("Reset");
+        resetButton.setOnAction(e -> {
+            Metrics.reset();
+            refresh();
+        });
+
+        Button copyButton = new Button("Copy JSON");
+        copyButton.setOnAction(e -> {
+            ClipboardContent content = new ClipboardContent();
+            content.putString(Metrics.toJson());
+            Clipboard.getSystemClipboard().setContent(content);
+        });
+
+        ScrollPane scrollPane = new ScrollPane(table);
+        scrollPane.setStyle("-fx-background: #2C3E50; -fx-background-color: #2C3E50;");
+
+        VBox root = new VBox(10, new HBox(10, resetButton, copyButton), scrollPane);
+        root.setPadding(new Insets(15));
+        root.setStyle("-fx-background-color: #2C3E50;");
+
+        stage.setScene(new Scene(root, 760, 360));
+        refresher.setCycleCount(Timeline.INDEFINITE);
+        // Only costs anything while it is open
+        stage.setOnShown(e -> refresher.play());
+        stage.setOnHidden(e -> refresher.stop());
+    }
+
+    public void toggle() {
+        if (stage.isShowing()) {
+            stage.hide();
+        } else {
+            refresh();
+            stage.show();
+        }
+    }
+
+    public void close() {
+        stage.hide();
+    }
+
+    private void refresh() {
+        StringBuilder text = new StringBuilder(String.format(Locale.ROOT, "%-26s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (LatencyHistogram.Snapshot snapshot : Metrics.snapshots()) {
+            text.append(String.format(Locale.ROOT, "%-26s %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    snapshot.getName(), snapshot.getCount(), snapshot.getMeanNanos() / 1e6,
+                    snapshot.percentileNanos(50) / 1e6, snapshot.percentileNanos(90) / 1e6,
+                    snapshot.percentileNanos(99) / 1e6, snapshot.getMaxNanos() / 1e6));
+        }
+        ConnectionPool.Stats pool = DatabaseConnector.getPoolStats();
+        text.append(String.format(Locale.ROOT, "%npool: %d active, %d idle, %d borrows, avg %.2f ms, max %.2f ms, %d leaks, %d round trips",
+                pool.getActive(), pool.getIdle(), pool.getBorrows(), pool.getAverageBorrowNanos() / 1e6,
+                pool.getMaxBorrowNanos() / 1e6, pool.getLeaks(), pool.getRoundTrips()));
+        table.setText(text.toString());
+    }
+}
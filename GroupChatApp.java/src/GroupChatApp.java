@@ -1,38 +1,107 @@
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import javafx.scene.effect.DropShadow;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyCodeCombination;
 import javafx.scene.shape.Rectangle;
 import javafx.animation.Timeline;
 import javafx.animation.KeyFrame;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.util.Duration;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import java.sql.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 @SuppressWarnings("ALL")
 public class GroupChatApp extends Application {
 
     private static final String[] MEMBERS = {"FAITH", "BLESSING", "STYVE", "TERRY"};
     private static final Map<String, String> MEMBER_COLORS = new HashMap<>();
-
-    private VBox chatContainer;
-    private ScrollPane chatScrollPane;
+    private static final int HISTORY_PAGE_SIZE = 100;
+    private static final int MAX_TRACKED_CLIENT_IDS = 10000;
+    // Rows kept in the live transcript; older ones are evicted and paged back in on scroll-up
+    private static final int MAX_TRANSCRIPT_ENTRIES = Integer.getInteger("groupchat.transcript.max", 2000);
+    private static final int TRANSCRIPT_TRIM_SLACK = Math.max(1, MAX_TRANSCRIPT_ENTRIES / 10);
+    // Search covers every message loaded this session up to this many; past it the index restarts from the transcript
+    private static final int MAX_INDEXED_MESSAGES = Integer.getInteger("groupchat.search.maxIndexed", 50_000);
+    // A cache further behind than this is dropped; reloading one page beats replaying the gap
+    private static final int MAX_CACHE_DELTA = 5000;
+    private static final int MAX_SEARCH_RESULTS = 200;
+    private static final long SEND_TIMEOUT_MS = Long.getLong("groupchat.send.timeoutMs", 10_000);
+    private static final String ROOM_STYLE = "-fx-background-color: transparent; -fx-background-radius: 6px; " +
+            "-fx-padding: 6px 10px; -fx-cursor: hand;";
+    private static final String ACTIVE_ROOM_STYLE = "-fx-background-color: #3498DB; -fx-background-radius: 6px; " +
+            "-fx-padding: 6px 10px; -fx-cursor: hand;";
+    private static final String RELAY_HOST = System.getProperty("groupchat.relay.host", "localhost");
+    private static final int RELAY_PORT = Integer.getInteger("groupchat.relay.port", ChatRelayServer.DEFAULT_PORT);
+    private static final Path REMEMBERED_LOGIN =
+            Paths.get(System.getProperty("user.home"), ".groupchat", "session");
+
+    private ListView<ChatMessage> chatView;
+    private ObservableList<ChatMessage> chatMessages;
     private Label statusLabel;
+    private Label offlineLabel;
     private VBox onlineUsersContainer;
     private Map<String, Boolean> userOnlineStatus;
     private TextArea messageInput;
     private String currentUser;
     private Stage primaryStage;
-    private Timeline onlineStatusUpdate;
+    private PresenceService presenceService;
+    private final Map<String, Rectangle> memberStatusIndicators = new HashMap<>();
+    private final Map<String, Label> memberStatusLabels = new HashMap<>();
+    private MessagePoller messagePoller;
+    private ChatMessage oldestLoadedMessage;
+    private boolean hasOlderMessages;
+    private boolean loadingOlderMessages;
+    // Set once paging back evicted the newest rows; live messages wait in heldIncoming until paging down catches up
+    private long newestLoadedId;
+    private boolean hasNewerMessages;
+    private boolean loadingNewerMessages;
+    private final List<ChatMessage> heldIncoming = new ArrayList<>();
+    private MessageWriter messageWriter;
+    // Swapped on room changes; the poller thread reads it too
+    private volatile MessageCache messageCache;
+    private RelayClient relayClient;
+    // Issued by AuthService at login; the relay will not accept this client without it
+    private String sessionToken;
+    private final Set<String> displayedClientIds = newRecentSet(MAX_TRACKED_CLIENT_IDS);
+    private final MessageIndex messageIndex = new MessageIndex();
+    private final AuthService authService = new AuthService();
+    private MessageIndex.Query activeSearch = MessageIndex.Query.parse("");
+    private long[] searchResults = new long[0];
+    private int searchPosition;
+    private TextField searchField;
+    private Label searchStatusLabel;
+    private List<Room> rooms = List.of(new Room(Room.DEFAULT_ID, "Team Discussion"));
+    private volatile int activeRoomId = Room.DEFAULT_ID;
+    // Bumped whenever the transcript is switched to a room, so stale async results can be recognized
+    private int roomVisit;
+    private final Map<Integer, Integer> unreadCounts = new HashMap<>();
+    private final Map<Integer, HBox> roomRows = new HashMap<>();
+    private final Map<Integer, Label> roomBadges = new HashMap<>();
+    private VBox roomsContainer;
+    private Label chatTitle;
+    private UnreadTracker unreadTracker;
+    private DiagnosticsPanel diagnosticsPanel;
+    private final HistoryPurger historyPurger = new HistoryPurger();
+    private long pulseStartNanos;
 
     static {
         // Set up member colors
@@ -50,12 +119,64 @@ public class GroupChatApp extends Application {
         this.primaryStage = stage;
         primaryStage.setTitle("Professional Group Chat - Login Required");
 
-        // Show login screen first
+        // Outgoing messages are persisted in the background; unsent ones survive a restart
+        messageWriter = new MessageWriter(
+                Paths.get(System.getProperty("user.home"), ".groupchat", "outbox.journal"),
+                error -> Platform.runLater(() -> {
+                    if (statusLabel != null) {
+                        statusLabel.setText("Database unavailable - messages queued");
+                    }
+                    updateConnectionIndicator();
+                }));
+
+        // Background workers report whether MySQL is reachable; sends keep queueing either way
+        DatabaseHealth.addListener(online -> Platform.runLater(() -> {
+            if (online && statusLabel != null) {
+                statusLabel.setText("Reconnected - sending queued messages");
+            }
+            updateConnectionIndicator();
+        }));
+
+        // Local copy of recent history so the transcript renders before MySQL answers
+        openCache(activeRoomId);
+
+        // Deletes history hidden by "Clear Chat" in small throttled chunks
+        historyPurger.start();
+
+        // Latency percentiles are written out periodically so they can be collected from user machines
+        Metrics.startDumping(Paths.get(System.getProperty("user.home"), ".groupchat", "metrics.json"),
+                Long.getLong("groupchat.metrics.dumpMs", 60_000));
+
+        // Show login screen first; a remembered session skips it once MySQL confirms the token
         showLoginScreen();
+        resumeRememberedLogin();
 
-        primaryStage.setOnCloseRequest(_ -> {
-            if (onlineStatusUpdate != null) {
-                onlineStatusUpdate.stop();
+        primaryStage.setOnCloseRequest(e -> {
+            if (presenceService != null) {
+                presenceService.stop();
+            }
+            if (messagePoller != null) {
+                messagePoller.stop();
+            }
+            if (relayClient != null) {
+                relayClient.stop();
+            }
+            if (unreadTracker != null) {
+                unreadTracker.stop();
+            }
+            if (diagnosticsPanel != null) {
+                diagnosticsPanel.close();
+            }
+            historyPurger.stop();
+            messageWriter.shutdown(2000);
+            Metrics.stopDumping();
+            DatabaseConnector.shutdown();
+            if (messageCache != null) {
+                try {
+                    messageCache.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
             }
             Platform.exit();
         });
@@ -132,6 +253,10 @@ public class GroupChatApp extends Application {
                 "-fx-font-size: 16px; -fx-background-radius: 8px; -fx-padding: 12px 40px;");
         loginButton.setPrefWidth(300);
 
+        CheckBox stayLoggedIn = new CheckBox("Stay signed in on this computer");
+        stayLoggedIn.setSelected(true);
+        stayLoggedIn.setStyle("-fx-text-fill: #BDC3C7; -fx-font-size: 12px;");
+
         // Error label
         Label errorLabel = new Label();
         errorLabel.setStyle("-fx-text-fill: #E74C3C; -fx-font-size: 12px; -fx-font-weight: bold;");
@@ -152,23 +277,40 @@ public class GroupChatApp extends Application {
                 return;
             }
 
-            if (validateCredentials(username, password)) {
-                currentUser = username;
-                showMainApplication();
-            } else {
-                showError(errorLabel, "Invalid credentials. Access denied.");
-                passwordField.clear();
-            }
+            loginButton.setDisable(true);
+            onFxThread(validateCredentials(username, password), result -> {
+                loginButton.setDisable(false);
+                if (result.getStatus() == AuthService.Status.SUCCESS) {
+                    currentUser = username;
+                    sessionToken = result.getSessionToken();
+                    if (stayLoggedIn.isSelected()) {
+                        new RememberedLogin(username, sessionToken).save(REMEMBERED_LOGIN);
+                    } else {
+                        RememberedLogin.clear(REMEMBERED_LOGIN);
+                    }
+                    showMainApplication();
+                } else if (result.getStatus() == AuthService.Status.RATE_LIMITED) {
+                    long seconds = Math.max(1, (result.getRetryAfterMs() + 999) / 1000);
+                    showError(errorLabel, "Too many failed attempts. Try again in " + seconds + "s.");
+                    passwordField.clear();
+                } else {
+                    showError(errorLabel, "Invalid credentials. Access denied.");
+                    passwordField.clear();
+                }
+            }, error -> {
+                loginButton.setDisable(false);
+                showError(errorLabel, "Unable to reach the server. Please try again.");
+            });
         };
 
-        loginButton.setOnAction(_ -> loginAction.run());
-        passwordField.setOnAction(_ -> loginAction.run());
+        loginButton.setOnAction(e -> loginAction.run());
+        passwordField.setOnAction(e -> loginAction.run());
 
         // Member info
         Label infoLabel = new Label("Team Members: FAITH • BLESSING • STYVE • TERRY");
         infoLabel.setStyle("-fx-text-fill: #BDC3C7; -fx-font-size: 12px; -fx-font-style: italic;");
 
-        loginForm.getChildren().addAll(loginTitle, usernameBox, passwordBox, loginButton, errorLabel);
+        loginForm.getChildren().addAll(loginTitle, usernameBox, passwordBox, stayLoggedIn, loginButton, errorLabel);
 
         loginRoot.getChildren().addAll(titleArea, loginForm, infoLabel);
 
@@ -180,22 +322,44 @@ public class GroupChatApp extends Application {
         primaryStage.show();
     }
 
-    private boolean validateCredentials(String username, String password) {
-        try (Connection conn = DatabaseConnector.getConnection()) {
-            PreparedStatement stmt = conn.prepareStatement(
-                    "SELECT password FROM users WHERE username = ?");
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
+    private CompletableFuture<AuthService.LoginResult> validateCredentials(String username, String password) {
+        return AsyncDatabase.supply(() -> authService.login(username, password));
+    }
 
-            if (rs.next()) {
-                String storedPassword = rs.getString("password");
-                return storedPassword.equals(password);
-            }
-            return false;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
+    // An expired or revoked token is forgotten; if MySQL is unreachable it is kept for next time
+    private void resumeRememberedLogin() {
+        RememberedLogin remembered = RememberedLogin.load(REMEMBERED_LOGIN);
+        if (remembered == null) {
+            return;
         }
+        onFxThread(AsyncDatabase.supply(() -> authService.resume(remembered.getUsername(), remembered.getSessionToken())), result -> {
+            if (currentUser != null) {
+                return;
+            }
+            if (result.getStatus() == AuthService.Status.SUCCESS) {
+                currentUser = remembered.getUsername();
+                sessionToken = result.getSessionToken();
+                showMainApplication();
+            } else {
+                RememberedLogin.clear(REMEMBERED_LOGIN);
+            }
+        }, error -> {
+            // Stay on the login screen; the token is tried again on the next start
+        });
+    }
+
+    // Delivers the result of a background database call back on the JavaFX application thread
+    private <T> void onFxThread(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                onSuccess.accept(result);
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                cause.printStackTrace();
+                onError.accept(cause);
+            }
+        }));
     }
 
     private void showError(Label errorLabel, String message) {
@@ -239,18 +403,33 @@ public class GroupChatApp extends Application {
         // Create scene
         Scene scene = new Scene(root, 1400, 900);
         scene.setFill(Color.web("#1a1a1a"));
+        scene.getStylesheets().add(ChatStyles.stylesheet(MEMBER_COLORS));
+
+        // CSS + layout time of each pulse on the FX thread
+        scene.addPreLayoutPulseListener(() -> pulseStartNanos = System.nanoTime());
+        scene.addPostLayoutPulseListener(() -> Metrics.record(Metrics.FX_PULSE, pulseStartNanos));
+
+        if (diagnosticsPanel == null) {
+            diagnosticsPanel = new DiagnosticsPanel(primaryStage);
+        }
+        scene.getAccelerators().put(
+                new KeyCodeCombination(KeyCode.D, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN),
+                diagnosticsPanel::toggle);
 
         primaryStage.setScene(scene);
         primaryStage.setResizable(true);
         primaryStage.setMinWidth(1200);
         primaryStage.setMinHeight(800);
 
-        // Load messages from database
-        loadMessagesFromDatabase();
-
         // Add welcome message
         addSystemMessage("Welcome to the Professional Chat, " + currentUser + "! 👋");
 
+        // Only the active room is loaded and subscribed; other rooms just count unread messages
+        loadRooms();
+        connectRelay();
+        loadRoomHistory();
+        startUnreadTracking();
+
         // Start periodic online status updates
         startOnlineStatusUpdates();
 
@@ -297,7 +476,12 @@ public class GroupChatApp extends Application {
                 "-fx-font-size: 12px; -fx-background-radius: 5px; -fx-padding: 5px 15px;");
         logoutButton.setOnAction(e -> logout());
 
-        userInfo.getChildren().addAll(userIndicator, currentUserLabel, logoutButton);
+        offlineLabel = new Label();
+        offlineLabel.setStyle("-fx-text-fill: white; -fx-background-color: #C0392B; -fx-font-weight: bold; " +
+                "-fx-font-size: 12px; -fx-background-radius: 5px; -fx-padding: 4px 10px;");
+        updateConnectionIndicator();
+
+        userInfo.getChildren().addAll(offlineLabel, userIndicator, currentUserLabel, logoutButton);
 
         titleBox.getChildren().addAll(title, spacer, userInfo);
 
@@ -315,6 +499,17 @@ public class GroupChatApp extends Application {
         return header;
     }
 
+    private void updateConnectionIndicator() {
+        if (offlineLabel == null) {
+            return;
+        }
+        boolean offline = !DatabaseHealth.isOnline();
+        offlineLabel.setVisible(offline);
+        offlineLabel.setManaged(offline);
+        int queued = messageWriter.getPendingCount();
+        offlineLabel.setText("● Offline" + (queued > 0 ? " - " + queued + " queued" : ""));
+    }
+
     private VBox createSidebar() {
         VBox sidebar = new VBox(15);
         sidebar.setPrefWidth(220);
@@ -327,9 +522,19 @@ public class GroupChatApp extends Application {
         separator.setStyle("-fx-background-color: #34495E;");
 
         onlineUsersContainer = new VBox(12);
-        updateOnlineUsersList();
+        buildOnlineUsersList();
+
+        Label roomsTitle = new Label("Rooms");
+        roomsTitle.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-text-fill: white;");
 
-        sidebar.getChildren().addAll(onlineTitle, separator, onlineUsersContainer);
+        Separator roomsSeparator = new Separator();
+        roomsSeparator.setStyle("-fx-background-color: #34495E;");
+
+        roomsContainer = new VBox(6);
+        buildRoomList();
+
+        sidebar.getChildren().addAll(roomsTitle, roomsSeparator, roomsContainer,
+                onlineTitle, separator, onlineUsersContainer);
 
         return sidebar;
     }
@@ -338,25 +543,105 @@ public class GroupChatApp extends Application {
         VBox chatArea = new VBox(15);
         chatArea.setStyle("-fx-background-color: #34495E; -fx-background-radius: 12px; -fx-padding: 20px;");
 
-        Label chatTitle = new Label("Team Discussion");
+        chatTitle = new Label(activeRoom().getName());
         chatTitle.setStyle("-fx-font-size: 20px; -fx-font-weight: bold; -fx-text-fill: white;");
 
-        chatContainer = new VBox(10);
-        chatContainer.setStyle("-fx-background-color: #2C3E50; -fx-background-radius: 10px; -fx-padding: 15px;");
+        // Only the visible rows get nodes; cells are recycled as the user scrolls
+        chatMessages = FXCollections.observableArrayList();
+        chatView = new ListView<>(chatMessages);
+        chatView.setCellFactory(list -> new MessageCell(list, content -> activeSearch.findMatches(content),
+                this::retryMessage));
+        chatView.setFocusTraversable(false);
+        installHistoryPaging();
+        chatView.setStyle("-fx-background-color: #2C3E50; -fx-control-inner-background: #2C3E50; " +
+                "-fx-background-radius: 10px; -fx-padding: 15px;");
 
-        chatScrollPane = new ScrollPane(chatContainer);
-        chatScrollPane.setFitToWidth(true);
-        chatScrollPane.setVbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
-        chatScrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
-        chatScrollPane.setStyle("-fx-background: #2C3E50; -fx-background-color: transparent;");
+        VBox.setVgrow(chatView, Priority.ALWAYS);
 
-        VBox.setVgrow(chatScrollPane, Priority.ALWAYS);
-
-        chatArea.getChildren().addAll(chatTitle, chatScrollPane);
+        chatArea.getChildren().addAll(chatTitle, createSearchBar(), chatView);
 
         return chatArea;
     }
 
+    private HBox createSearchBar() {
+        searchField = new TextField();
+        searchField.setPromptText("Search messages (from:NAME, after:YYYY-MM-DD, before:YYYY-MM-DD)");
+        searchField.setStyle("-fx-background-color: #2C3E50; -fx-text-fill: white; -fx-prompt-text-fill: #95A5A6; " +
+                "-fx-background-radius: 8px; -fx-padding: 8px;");
+        HBox.setHgrow(searchField, Priority.ALWAYS);
+
+        searchStatusLabel = new Label();
+        searchStatusLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: #BDC3C7;");
+
+        Button olderButton = new Button("▲");
+        Button newerButton = new Button("▼");
+        for (Button button : new Button[]{olderButton, newerButton}) {
+            button.setStyle("-fx-background-color: #2C3E50; -fx-text-fill: white; -fx-background-radius: 8px; -fx-cursor: hand;");
+            button.setFocusTraversable(false);
+        }
+
+        // Results are newest first, so "older" walks forward through them
+        olderButton.setOnAction(e -> showSearchResult(searchPosition + 1));
+        newerButton.setOnAction(e -> showSearchResult(searchPosition - 1));
+        searchField.textProperty().addListener((obs, oldText, newText) -> runSearch(newText));
+        searchField.setOnAction(e -> showSearchResult(searchPosition + 1));
+        searchField.setOnKeyPressed(e -> {
+            if (e.getCode() == javafx.scene.input.KeyCode.ESCAPE) {
+                searchField.clear();
+            }
+        });
+
+        HBox searchBar = new HBox(8, searchField, searchStatusLabel, olderButton, newerButton);
+        searchBar.setAlignment(Pos.CENTER_LEFT);
+        return searchBar;
+    }
+
+    private void runSearch(String input) {
+        activeSearch = MessageIndex.Query.parse(input);
+        searchResults = activeSearch.isEmpty() ? new long[0] : messageIndex.search(activeSearch, MAX_SEARCH_RESULTS);
+        chatView.refresh();
+
+        if (activeSearch.isEmpty()) {
+            searchStatusLabel.setText("");
+            return;
+        }
+        if (searchResults.length == 0) {
+            searchStatusLabel.setText("No matches");
+            return;
+        }
+        showSearchResult(0);
+    }
+
+    private void showSearchResult(int position) {
+        if (searchResults.length == 0) {
+            return;
+        }
+        searchPosition = Math.floorMod(position, searchResults.length);
+        updateSearchStatus();
+
+        long id = searchResults[searchPosition];
+        for (int i = chatMessages.size() - 1; i >= 0; i--) {
+            if (chatMessages.get(i).getId() == id) {
+                chatView.scrollTo(i);
+                chatView.getSelectionModel().select(i);
+                return;
+            }
+        }
+        // Evicted from the live transcript; scrolling up pages it back in
+        searchStatusLabel.setText(searchStatusLabel.getText() + " (scroll up to load)");
+    }
+
+    private void updateSearchStatus() {
+        searchStatusLabel.setText((searchPosition + 1) + " of " + searchResults.length
+                + (searchResults.length == MAX_SEARCH_RESULTS ? "+" : ""));
+    }
+
+    private void refreshSearch() {
+        if (!activeSearch.isEmpty()) {
+            runSearch(searchField.getText());
+        }
+    }
+
     private VBox createControlPanel() {
         VBox controlPanel = new VBox(20);
         controlPanel.setPrefWidth(280);
@@ -410,8 +695,11 @@ public class GroupChatApp extends Application {
         return controlPanel;
     }
 
-    private void updateOnlineUsersList() {
+    // Rows are built once per session; presence changes only touch the affected member's row
+    private void buildOnlineUsersList() {
         onlineUsersContainer.getChildren().clear();
+        memberStatusIndicators.clear();
+        memberStatusLabels.clear();
 
         for (String member : MEMBERS) {
             VBox userItem = new VBox(5);
@@ -420,7 +708,6 @@ public class GroupChatApp extends Application {
             userHeader.setAlignment(Pos.CENTER_LEFT);
 
             Rectangle statusIndicator = new Rectangle(10, 10);
-            statusIndicator.setFill(userOnlineStatus.get(member) ? Color.web("#2ECC71") : Color.web("#95A5A6"));
             statusIndicator.setArcWidth(10);
             statusIndicator.setArcHeight(10);
 
@@ -433,163 +720,694 @@ public class GroupChatApp extends Application {
 
             userHeader.getChildren().addAll(statusIndicator, username);
 
-            Label status = new Label(userOnlineStatus.get(member) ? "Online" : "Offline");
-            status.setStyle("-fx-text-fill: " + (userOnlineStatus.get(member) ? "#2ECC71" : "#95A5A6") +
-                    "; -fx-font-size: 11px; -fx-padding: 0 0 0 22px;");
+            Label status = new Label();
+
+            memberStatusIndicators.put(member, statusIndicator);
+            memberStatusLabels.put(member, status);
+            updateMemberStatus(member);
 
             userItem.getChildren().addAll(userHeader, status);
             onlineUsersContainer.getChildren().add(userItem);
         }
     }
 
-    private void loadMessagesFromDatabase() {
-        try (Connection conn = DatabaseConnector.getConnection()) {
-            PreparedStatement stmt = conn.prepareStatement(
-                    "SELECT sender, content, timestamp FROM messages ORDER BY timestamp");
-            ResultSet rs = stmt.executeQuery();
+    private void updateMemberStatus(String member) {
+        boolean online = userOnlineStatus.get(member);
+        memberStatusIndicators.get(member).setFill(online ? Color.web("#2ECC71") : Color.web("#95A5A6"));
+
+        Label status = memberStatusLabels.get(member);
+        status.setText(online ? "Online" : "Offline");
+        status.setStyle("-fx-text-fill: " + (online ? "#2ECC71" : "#95A5A6") +
+                "; -fx-font-size: 11px; -fx-padding: 0 0 0 22px;");
+    }
 
-            while (rs.next()) {
-                String sender = rs.getString("sender");
-                String content = rs.getString("content");
-                LocalDateTime timestamp = rs.getTimestamp("timestamp").toLocalDateTime();
+    private void loadRoomHistory() {
+        // Render the cached tail immediately, then fetch only what MySQL has beyond it
+        long start = System.nanoTime();
+        int roomId = activeRoomId;
+        int visit = roomVisit;
+        MessageCache cache = messageCache;
+        List<ChatMessage> cached = cache == null ? List.of() : cache.loadLatest(HISTORY_PAGE_SIZE);
+        showHistory(cached);
+        hasOlderMessages = !cached.isEmpty();
+
+        long cachedMaxId = cache == null ? 0 : cache.getMaxId();
+        onFxThread(AsyncDatabase.supply(() -> {
+            long queryStart = System.nanoTime();
+            HistorySync sync = syncHistory(roomId, cache, cachedMaxId);
+            Metrics.record(Metrics.HISTORY_QUERY, queryStart);
+            return sync;
+        }), sync -> {
+            Metrics.record(Metrics.LOAD_HISTORY, start);
+            if (visit != roomVisit) {
+                // The user moved to another room while this was loading
+                return;
+            }
+            if (sync.replacesCache) {
+                messageIndex.clear();
+                resetNewerPaging();
+                chatMessages.removeAll(cached);
+                showHistory(sync.messages);
+                hasOlderMessages = sync.messages.size() == HISTORY_PAGE_SIZE;
+            } else {
+                indexMessages(sync.messages);
+                appendIncomingMessages(sync.messages);
+            }
 
-                Platform.runLater(() -> addMessage(sender, content, timestamp));
+            long lastSeenId = cachedMaxId;
+            for (ChatMessage message : sync.messages) {
+                lastSeenId = Math.max(lastSeenId, message.getId());
             }
-        } catch (SQLException e) {
+            startPolling(lastSeenId);
+        }, error -> {
+            Metrics.record(Metrics.LOAD_HISTORY, start);
+            if (visit == roomVisit) {
+                addSystemMessage("Error loading message history");
+                startPolling(cachedMaxId);
+            }
+        });
+    }
+
+    // Runs off the FX thread: either the delta past the cache, or a fresh newest page if the cache is unusable
+    private HistorySync syncHistory(int roomId, MessageCache cache, long cachedMaxId) throws SQLException {
+        if (cachedMaxId > 0) {
+            long minId = MessageRepository.loadMinId(roomId);
+            boolean historyCleared = minId == 0 || minId > cachedMaxId;
+            if (!historyCleared) {
+                List<ChatMessage> delta = MessageRepository.loadSince(roomId, cachedMaxId, MAX_CACHE_DELTA + 1);
+                if (delta.size() <= MAX_CACHE_DELTA) {
+                    appendToCache(cache, delta);
+                    return new HistorySync(false, delta);
+                }
+            }
+        }
+
+        List<ChatMessage> page = MessageRepository.loadLatestPage(roomId, HISTORY_PAGE_SIZE);
+        if (cache != null) {
+            try {
+                cache.clear();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        appendToCache(cache, page);
+        return new HistorySync(true, page);
+    }
+
+    private void showHistory(List<ChatMessage> history) {
+        if (!history.isEmpty()) {
+            oldestLoadedMessage = history.get(0);
+        }
+        for (ChatMessage message : history) {
+            if (message.getClientId() != null) {
+                displayedClientIds.add(message.getClientId());
+            }
+        }
+
+        indexMessages(history);
+
+        // History goes above anything shown while it was loading
+        chatMessages.addAll(0, history);
+        scrollToLatest();
+        refreshSearch();
+    }
+
+    private void appendToCache(MessageCache cache, List<ChatMessage> messages) {
+        if (cache == null || messages.isEmpty()) {
+            return;
+        }
+        try {
+            cache.append(messages);
+        } catch (IOException e) {
             e.printStackTrace();
-            addSystemMessage("Error loading message history");
         }
     }
 
-    private void saveMessageToDatabase(String sender, String message) {
-        try (Connection conn = DatabaseConnector.getConnection()) {
-            PreparedStatement stmt = conn.prepareStatement(
-                    "INSERT INTO messages (sender, content) VALUES (?, ?)");
-            stmt.setString(1, sender);
-            stmt.setString(2, message);
-            stmt.executeUpdate();
+    // Each room has its own cache file; the default room keeps the name it had before rooms existed
+    private void openCache(int roomId) {
+        MessageCache previous = messageCache;
+        messageCache = null;
+        if (previous != null) {
+            try {
+                previous.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
 
-            // Update user's last online time
-            PreparedStatement updateUser = conn.prepareStatement(
-                    "UPDATE users SET last_online = CURRENT_TIMESTAMP WHERE username = ?");
-            updateUser.setString(1, sender);
-            updateUser.executeUpdate();
-        } catch (SQLException e) {
+        String fileName = roomId == Room.DEFAULT_ID ? "messages.cache" : "messages-room" + roomId + ".cache";
+        try {
+            messageCache = MessageCache.open(Paths.get(System.getProperty("user.home"), ".groupchat", fileName), roomId);
+        } catch (IOException e) {
             e.printStackTrace();
-            Platform.runLater(() ->
-                    statusLabel.setText("Error saving message to database"));
-        }
-    }
-
-    private void updateUserOnlineStatus() {
-        try (Connection conn = DatabaseConnector.getConnection()) {
-            // Update current user's status
-            PreparedStatement updateCurrentUser = conn.prepareStatement(
-                    "UPDATE users SET last_online = CURRENT_TIMESTAMP WHERE username = ?");
-            updateCurrentUser.setString(1, currentUser);
-            updateCurrentUser.executeUpdate();
-
-            // Check other users' status
-            PreparedStatement checkUsers = conn.prepareStatement(
-                    "SELECT username, last_online FROM users WHERE username != ?");
-            checkUsers.setString(1, currentUser);
-            ResultSet rs = checkUsers.executeQuery();
-
-            while (rs.next()) {
-                String username = rs.getString("username");
-                Timestamp lastOnline = rs.getTimestamp("last_online");
-                boolean isOnline = lastOnline != null &&
-                        System.currentTimeMillis() - lastOnline.getTime() < 120000; // 2 minutes
-
-                if (userOnlineStatus.get(username) != isOnline) {
-                    userOnlineStatus.put(username, isOnline);
-                    String statusMessage = username + " is now " + (isOnline ? "online" : "offline");
-                    Platform.runLater(() -> addSystemMessage(statusMessage));
+        }
+    }
+
+    private void loadOlderMessages() {
+        if (loadingOlderMessages || !hasOlderMessages || oldestLoadedMessage == null) {
+            return;
+        }
+
+        // Serve as much of the page as possible from the local cache
+        int roomId = activeRoomId;
+        int visit = roomVisit;
+        MessageCache cache = messageCache;
+        List<ChatMessage> cachedPage = cache == null ? List.of()
+                : cache.loadBefore(oldestLoadedMessage.getId(), HISTORY_PAGE_SIZE);
+        if (cachedPage.size() == HISTORY_PAGE_SIZE) {
+            prependHistory(cachedPage);
+            return;
+        }
+
+        loadingOlderMessages = true;
+        ChatMessage cursor = cachedPage.isEmpty() ? oldestLoadedMessage : cachedPage.get(0);
+        int remaining = HISTORY_PAGE_SIZE - cachedPage.size();
+        onFxThread(AsyncDatabase.supply(() -> MessageRepository.loadPageBefore(roomId, cursor, remaining)), page -> {
+            if (visit != roomVisit) {
+                return;
+            }
+            loadingOlderMessages = false;
+            hasOlderMessages = page.size() == remaining;
+
+            List<ChatMessage> combined = new ArrayList<>(page);
+            combined.addAll(cachedPage);
+            prependHistory(combined);
+        }, error -> {
+            if (visit != roomVisit) {
+                return;
+            }
+            loadingOlderMessages = false;
+            statusLabel.setText("Error loading older messages");
+        });
+    }
+
+    private void prependHistory(List<ChatMessage> page) {
+        if (page.isEmpty()) {
+            return;
+        }
+        oldestLoadedMessage = page.get(0);
+        indexMessages(page);
+
+        // Rows still on screen (e.g. kept past an eviction boundary) are not added twice
+        List<ChatMessage> fresh = new ArrayList<>(page.size());
+        for (ChatMessage message : page) {
+            if (message.getClientId() == null || displayedClientIds.add(message.getClientId())) {
+                fresh.add(message);
+            }
+        }
+        chatMessages.addAll(0, fresh);
+        trimNewestRows();
+        // Keep the row the user was looking at in place
+        chatView.scrollTo(fresh.size());
+        if (!activeSearch.isEmpty()) {
+            // Older pages can only add matches after the ones already listed
+            searchResults = messageIndex.search(activeSearch, MAX_SEARCH_RESULTS);
+            updateSearchStatus();
+        }
+    }
+
+    // Mirror of trimTranscript for paging back: the user is reading the oldest rows, so the newest go,
+    // and live messages are held until loadNewerMessages has brought the bottom back
+    private void trimNewestRows() {
+        if (chatMessages.size() <= MAX_TRANSCRIPT_ENTRIES + TRANSCRIPT_TRIM_SLACK) {
+            return;
+        }
+        List<ChatMessage> evicted = new ArrayList<>(chatMessages.subList(MAX_TRANSCRIPT_ENTRIES, chatMessages.size()));
+        chatMessages.remove(MAX_TRANSCRIPT_ENTRIES, chatMessages.size());
+        for (ChatMessage message : evicted) {
+            if (message.getClientId() != null) {
+                displayedClientIds.remove(message.getClientId());
+            }
+        }
+
+        newestLoadedId = 0;
+        for (int i = chatMessages.size() - 1; i >= 0 && newestLoadedId == 0; i--) {
+            newestLoadedId = Math.max(0, chatMessages.get(i).getId());
+        }
+        hasNewerMessages = true;
+    }
+
+    private void loadNewerMessages() {
+        if (loadingNewerMessages || !hasNewerMessages) {
+            return;
+        }
+
+        loadingNewerMessages = true;
+        int roomId = activeRoomId;
+        int visit = roomVisit;
+        long after = newestLoadedId;
+        onFxThread(AsyncDatabase.supply(() -> MessageRepository.loadSince(roomId, after, HISTORY_PAGE_SIZE)), page -> {
+            if (visit != roomVisit || !hasNewerMessages) {
+                return;
+            }
+            loadingNewerMessages = false;
+
+            int previousLast = chatMessages.size() - 1;
+            List<ChatMessage> fresh = new ArrayList<>(page.size());
+            for (ChatMessage message : page) {
+                newestLoadedId = Math.max(newestLoadedId, message.getId());
+                if (message.getClientId() == null || displayedClientIds.add(message.getClientId())) {
+                    fresh.add(message);
+                }
+            }
+            chatMessages.addAll(fresh);
+            int trimmed = chatMessages.size();
+            trimTranscript();
+            // Keep the row the user was looking at in place
+            chatView.scrollTo(Math.max(0, previousLast - (trimmed - chatMessages.size())));
+
+            if (page.size() < HISTORY_PAGE_SIZE) {
+                // Caught up: whatever arrived meanwhile and is not already on screen goes at the bottom
+                hasNewerMessages = false;
+                List<ChatMessage> held = new ArrayList<>();
+                for (ChatMessage message : heldIncoming) {
+                    if (message.getId() <= 0 || message.getId() > newestLoadedId) {
+                        held.add(message);
+                    }
                 }
+                heldIncoming.clear();
+                appendIncomingMessages(held);
+            }
+        }, error -> {
+            if (visit != roomVisit) {
+                return;
             }
+            loadingNewerMessages = false;
+            statusLabel.setText("Error loading newer messages");
+        });
+    }
 
-            Platform.runLater(this::updateOnlineUsersList);
-        } catch (SQLException e) {
-            e.printStackTrace();
+    private void resetNewerPaging() {
+        newestLoadedId = 0;
+        hasNewerMessages = false;
+        loadingNewerMessages = false;
+        heldIncoming.clear();
+    }
+
+    private void indexMessages(List<ChatMessage> messages) {
+        if (messageIndex.size() + messages.size() > MAX_INDEXED_MESSAGES) {
+            messageIndex.clear();
+            messageIndex.addAll(chatMessages);
         }
+        messageIndex.addAll(messages);
     }
 
-    private void sendMessage() {
-        String message = messageInput.getText().trim();
+    private void installHistoryPaging() {
+        chatView.skinProperty().addListener((obs, oldSkin, newSkin) -> Platform.runLater(() -> {
+            for (Node node : chatView.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                    ScrollBar scrollBar = (ScrollBar) node;
+                    scrollBar.valueProperty().addListener((o, oldValue, newValue) -> {
+                        if (newValue.doubleValue() <= scrollBar.getMin() && oldValue.doubleValue() > newValue.doubleValue()) {
+                            loadOlderMessages();
+                        } else if (newValue.doubleValue() >= scrollBar.getMax() && oldValue.doubleValue() < newValue.doubleValue()) {
+                            loadNewerMessages();
+                        }
+                    });
+                }
+            }
+        }));
+    }
 
-        if (!message.isEmpty()) {
-            addMessage(currentUser, message, LocalDateTime.now());
-            saveMessageToDatabase(currentUser, message);
-            messageInput.clear();
-            statusLabel.setText("Message sent successfully");
+    private void startPolling(long lastSeenId) {
+        if (messagePoller == null) {
+            messagePoller = new MessagePoller(messages -> {
+                appendToCache(messageCache, messages);
+                Platform.runLater(() -> {
+                    // A tick that was in flight during a room switch belongs to the old room
+                    if (messages.get(0).getRoomId() == activeRoomId) {
+                        indexMessages(messages);
+                        appendIncomingMessages(messages);
+                    }
+                });
+            });
+        }
+        boolean relayConnected = relayClient != null && relayClient.isConnected();
+        messagePoller.start(activeRoomId, lastSeenId,
+                relayConnected ? MessagePoller.RECONCILE_INTERVAL_MS : MessagePoller.FAST_INTERVAL_MS);
+    }
+
+    // The relay pushes the subscribed room's messages in real time; the poller covers for it whenever it is down
+    private void connectRelay() {
+        String user = currentUser;
+        relayClient = new RelayClient(RELAY_HOST, RELAY_PORT, user, sessionToken,
+                message -> Platform.runLater(() -> {
+                    if (user.equals(currentUser)) {
+                        appendIncomingMessages(List.of(message));
+                    }
+                }),
+                connected -> {
+                    MessagePoller poller = messagePoller;
+                    if (poller != null) {
+                        poller.changeInterval(connected ? MessagePoller.RECONCILE_INTERVAL_MS : MessagePoller.FAST_INTERVAL_MS);
+                    }
+                });
+        relayClient.subscribe(activeRoomId);
+        relayClient.start();
+    }
 
-            Timeline statusReset = new Timeline(new KeyFrame(Duration.seconds(2), e ->
-                    statusLabel.setText("Ready to send")));
-            statusReset.play();
+    private void loadRooms() {
+        onFxThread(AsyncDatabase.supply(RoomRepository::loadRooms), loaded -> {
+            if (!loaded.isEmpty()) {
+                rooms = loaded;
+                buildRoomList();
+                chatTitle.setText(activeRoom().getName());
+            }
+        }, error -> statusLabel.setText("Error loading rooms"));
+    }
+
+    private Room activeRoom() {
+        for (Room room : rooms) {
+            if (room.getId() == activeRoomId) {
+                return room;
+            }
         }
+        return new Room(activeRoomId, "Room " + activeRoomId);
     }
 
-    private void addMessage(String sender, String message, LocalDateTime timestamp) {
-        VBox messageBox = new VBox(8);
-        messageBox.setStyle("-fx-background-color: #1a1a1a; -fx-background-radius: 10px; " +
-                "-fx-padding: 15px; -fx-border-color: " + MEMBER_COLORS.get(sender) +
-                "; -fx-border-width: 1.5px; -fx-border-radius: 10px;");
+    private void buildRoomList() {
+        roomsContainer.getChildren().clear();
+        roomRows.clear();
+        roomBadges.clear();
 
-        HBox header = new HBox(15);
-        header.setAlignment(Pos.CENTER_LEFT);
+        for (Room room : rooms) {
+            HBox row = new HBox(8);
+            row.setAlignment(Pos.CENTER_LEFT);
 
-        Label senderLabel = new Label(sender);
-        senderLabel.setStyle("-fx-text-fill: " + MEMBER_COLORS.get(sender) +
-                "; -fx-font-weight: bold; -fx-font-size: 15px;");
+            Label name = new Label("# " + room.getName());
+            name.setStyle("-fx-text-fill: white; -fx-font-size: 14px; -fx-font-weight: bold;");
 
-        Region spacer = new Region();
-        HBox.setHgrow(spacer, Priority.ALWAYS);
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+
+            Label badge = new Label();
+            badge.setStyle("-fx-background-color: #E74C3C; -fx-text-fill: white; -fx-font-size: 11px; " +
+                    "-fx-font-weight: bold; -fx-background-radius: 9px; -fx-padding: 1px 7px;");
+
+            row.getChildren().addAll(name, spacer, badge);
+            row.setOnMouseClicked(e -> switchRoom(room));
 
-        Label timeLabel = new Label(timestamp.format(DateTimeFormatter.ofPattern("MMM dd, HH:mm")));
-        timeLabel.setStyle("-fx-text-fill: #BDC3C7; -fx-font-size: 11px;");
+            roomRows.put(room.getId(), row);
+            roomBadges.put(room.getId(), badge);
+            updateRoomRow(room.getId());
+            roomsContainer.getChildren().add(row);
+        }
+    }
 
-        header.getChildren().addAll(senderLabel, spacer, timeLabel);
+    private void updateRoomRow(int roomId) {
+        HBox row = roomRows.get(roomId);
+        if (row == null) {
+            return;
+        }
+        row.setStyle(roomId == activeRoomId ? ACTIVE_ROOM_STYLE : ROOM_STYLE);
 
-        Label messageLabel = new Label(message);
-        messageLabel.setStyle("-fx-text-fill: white; -fx-font-size: 14px; -fx-line-spacing: 2px;");
-        messageLabel.setWrapText(true);
+        int unread = unreadCounts.getOrDefault(roomId, 0);
+        Label badge = roomBadges.get(roomId);
+        badge.setText(unread > 99 ? "99+" : Integer.toString(unread));
+        badge.setVisible(unread > 0);
+    }
 
-        messageBox.getChildren().addAll(header, messageLabel);
-        chatContainer.getChildren().add(messageBox);
+    private void switchRoom(Room room) {
+        if (room.getId() == activeRoomId) {
+            return;
+        }
+        int previousRoomId = activeRoomId;
+        activeRoomId = room.getId();
+        roomVisit++;
+        unreadCounts.remove(activeRoomId);
+        updateRoomRow(previousRoomId);
+        updateRoomRow(activeRoomId);
+        chatTitle.setText(room.getName());
+
+        // Drop everything belonging to the previous room; only the new one is loaded and subscribed
+        if (relayClient != null) {
+            relayClient.subscribe(activeRoomId);
+        }
+        searchField.clear();
+        openCache(activeRoomId);
+        reloadActiveRoom();
+    }
 
-        Platform.runLater(() -> chatScrollPane.setVvalue(1.0));
+    private void reloadActiveRoom() {
+        if (messagePoller != null) {
+            messagePoller.stop();
+        }
+        roomVisit++;
+        messageIndex.clear();
+        chatMessages.clear();
+        oldestLoadedMessage = null;
+        hasOlderMessages = false;
+        loadingOlderMessages = false;
+        resetNewerPaging();
+        loadRoomHistory();
     }
 
-    private void addSystemMessage(String message) {
-        VBox messageBox = new VBox();
-        messageBox.setStyle("-fx-background-color: rgba(52, 152, 219, 0.1); -fx-background-radius: 8px; " +
-                "-fx-padding: 10px; -fx-alignment: center; -fx-border-color: #3498DB; " +
-                "-fx-border-width: 1px; -fx-border-radius: 8px;");
+    private void startUnreadTracking() {
+        String user = currentUser;
+        unreadTracker = new UnreadTracker(counts -> Platform.runLater(() -> {
+            if (user.equals(currentUser)) {
+                applyUnreadCounts(counts);
+            }
+        }));
+        unreadTracker.start();
+    }
 
-        Label messageLabel = new Label(message);
-        messageLabel.setStyle("-fx-text-fill: #3498DB; -fx-font-size: 13px; -fx-font-style: italic; -fx-font-weight: bold;");
-        messageLabel.setWrapText(true);
+    private void applyUnreadCounts(Map<Integer, Integer> counts) {
+        for (Map.Entry<Integer, Integer> count : counts.entrySet()) {
+            int roomId = count.getKey();
+            if (roomId != activeRoomId) {
+                unreadCounts.merge(roomId, count.getValue(), Integer::sum);
+                updateRoomRow(roomId);
+            }
+        }
+    }
 
-        messageBox.getChildren().add(messageLabel);
-        chatContainer.getChildren().add(messageBox);
+    private void appendIncomingMessages(List<ChatMessage> messages) {
+        if (hasNewerMessages) {
+            // The bottom of the transcript was evicted; appending here would leave a gap
+            for (ChatMessage message : messages) {
+                if (message.getRoomId() == activeRoomId && heldIncoming.size() < MAX_TRANSCRIPT_ENTRIES) {
+                    heldIncoming.add(message);
+                }
+            }
+            return;
+        }
+        List<ChatMessage> fresh = new ArrayList<>(messages.size());
+        for (ChatMessage message : messages) {
+            if (message.getRoomId() != activeRoomId) {
+                continue;
+            }
+            // The same message can arrive from the relay and the poller, and ours are already on screen
+            if (message.getClientId() == null || displayedClientIds.add(message.getClientId())) {
+                fresh.add(message);
+            } else if (message.getId() > 0) {
+                replaceUnpersisted(message);
+            }
+        }
+        if (!fresh.isEmpty()) {
+            chatMessages.addAll(fresh);
+            trimTranscript();
+            scrollToLatest();
+        }
+    }
 
-        Platform.runLater(() -> chatScrollPane.setVvalue(1.0));
+    // Relay deliveries and our own sends are shown before they have an id; the polled copy
+    // replaces them so every row can serve as a paging cursor once older rows are evicted
+    private void replaceUnpersisted(ChatMessage persisted) {
+        for (int i = chatMessages.size() - 1; i >= 0; i--) {
+            ChatMessage shown = chatMessages.get(i);
+            if (persisted.getClientId().equals(shown.getClientId())) {
+                if (shown.getId() == 0) {
+                    // Seeing our own row come back from MySQL is as good as an acknowledgement
+                    chatMessages.set(i, shown.getDelivery() == null
+                            ? persisted : persisted.withDelivery(ChatMessage.Delivery.DELIVERED));
+                }
+                return;
+            }
+        }
     }
 
-    private void startOnlineStatusUpdates() {
-        onlineStatusUpdate = new Timeline(new KeyFrame(Duration.seconds(30), e -> {
-            updateUserOnlineStatus();
+    // Keeps memory flat for long-running clients: the oldest rows are dropped in batches, and the
+    // paging cursor moves up so scrolling back reloads them from the cache or MySQL like any history
+    private void trimTranscript() {
+        if (chatMessages.size() <= MAX_TRANSCRIPT_ENTRIES + TRANSCRIPT_TRIM_SLACK) {
+            return;
+        }
+        int excess = chatMessages.size() - MAX_TRANSCRIPT_ENTRIES;
+        List<ChatMessage> evicted = new ArrayList<>(chatMessages.subList(0, excess));
+        chatMessages.remove(0, excess);
+
+        ChatMessage newestEvicted = null;
+        for (ChatMessage message : evicted) {
+            if (message.getClientId() != null) {
+                displayedClientIds.remove(message.getClientId());
+            }
+            if (message.getId() > 0) {
+                newestEvicted = message;
+            }
+        }
+        if (newestEvicted == null) {
+            // Only system notices or unsent rows went; nothing to page back
+            return;
+        }
+
+        hasOlderMessages = true;
+        oldestLoadedMessage = null;
+        for (ChatMessage message : chatMessages) {
+            if (message.getId() > 0) {
+                oldestLoadedMessage = message;
+                break;
+            }
+        }
+        if (oldestLoadedMessage == null) {
+            // No persisted row left on screen: page from just above the newest evicted one, inclusive
+            oldestLoadedMessage = new ChatMessage(newestEvicted.getId() + 1, null, newestEvicted.getRoomId(),
+                    newestEvicted.getSender(), newestEvicted.getContent(), newestEvicted.getTimestamp());
+        }
+    }
+
+    private static Set<String> newRecentSet(int capacity) {
+        return Collections.newSetFromMap(new LinkedHashMap<String, Boolean>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    private CompletableFuture<Void> saveMessageToDatabase(String clientId, int roomId, String sender, String message) {
+        long start = System.nanoTime();
+        return messageWriter.enqueue(clientId, roomId, sender, message)
+                .whenComplete((done, error) -> Metrics.record(Metrics.SAVE_MESSAGE, start));
+    }
+
+    // Prefer the relay; anything it does not acknowledge is written to the database directly
+    private CompletableFuture<Void> deliverMessage(String clientId, int roomId, String sender, String message) {
+        if (relayClient == null || !relayClient.isConnected()) {
+            return saveMessageToDatabase(clientId, roomId, sender, message);
+        }
+        return relayClient.send(clientId, roomId, message).thenCompose(acknowledged -> acknowledged
+                ? CompletableFuture.completedFuture(null)
+                : saveMessageToDatabase(clientId, roomId, sender, message));
+    }
+
+    private void applyPresenceChanges(Map<String, Boolean> changes) {
+        for (Map.Entry<String, Boolean> change : changes.entrySet()) {
+            String username = change.getKey();
+            boolean isOnline = change.getValue();
+            if (!userOnlineStatus.containsKey(username) || userOnlineStatus.get(username) == isOnline) {
+                continue;
+            }
+
+            userOnlineStatus.put(username, isOnline);
+            updateMemberStatus(username);
+            addSystemMessage(username + " is now " + (isOnline ? "online" : "offline"));
+        }
+    }
+
+    private void sendMessage() {
+        String message = messageInput.getText().trim();
+
+        if (!message.isEmpty()) {
+            if (hasNewerMessages) {
+                // Scrolled back past evicted rows: sending jumps to the present, as reopening the room would
+                reloadActiveRoom();
+            }
+            String clientId = UUID.randomUUID().toString();
+            displayedClientIds.add(clientId);
+            presenceService.recordActivity();
+            ChatMessage pending = ChatMessage.pending(clientId, activeRoomId, currentUser, message);
+            chatMessages.add(pending);
+            trimTranscript();
+            scrollToLatest();
+            messageInput.clear();
+            deliver(pending);
+            updateConnectionIndicator();
+        }
+    }
+
+    // Optimistic send: the bubble is already on screen as pending and flips to delivered once the relay
+    // acknowledges it or the row is committed, or to failed if neither happens within SEND_TIMEOUT_MS.
+    // Retries reuse the client id, so a message that did get through is never stored twice.
+    private void deliver(ChatMessage message) {
+        long start = System.nanoTime();
+        String clientId = message.getClientId();
+        int attempt = message.getDeliveryAttempt();
+        Timeline timeout = new Timeline(new KeyFrame(Duration.millis(SEND_TIMEOUT_MS), e -> {
+            // While offline the message sits in the durable outbox and goes out on reconnect
+            if (DatabaseHealth.isOnline() && updateDelivery(clientId, attempt, ChatMessage.Delivery.FAILED)) {
+                statusLabel.setText("Message not delivered - click it to retry");
+            }
         }));
+        timeout.play();
+
+        onFxThread(deliverMessage(clientId, message.getRoomId(), message.getSender(), message.getContent()), done -> {
+            timeout.stop();
+            Metrics.record(Metrics.SEND_MESSAGE, start);
+            updateDelivery(clientId, attempt, ChatMessage.Delivery.DELIVERED);
+        }, error -> {
+            timeout.stop();
+            Metrics.record(Metrics.SEND_MESSAGE, start);
+            if (updateDelivery(clientId, attempt, ChatMessage.Delivery.FAILED)) {
+                statusLabel.setText("Error saving message to database");
+            }
+        });
+    }
 
-        onlineStatusUpdate.setCycleCount(Timeline.INDEFINITE);
-        onlineStatusUpdate.play();
+    private void retryMessage(ChatMessage failed) {
+        if (updateDelivery(failed.getClientId(), failed.getDeliveryAttempt(), ChatMessage.Delivery.PENDING)) {
+            statusLabel.setText("Retrying...");
+            deliver(failed.nextAttempt());
+        }
+    }
+
+    // Delivered is final, and is accepted from any attempt since they all share the client id.
+    // Anything else from an attempt other than the current one is stale: a late error or timeout
+    // from attempt 1 must not mark the retry failed. Going back to pending starts the next attempt.
+    private boolean updateDelivery(String clientId, int attempt, ChatMessage.Delivery delivery) {
+        for (int i = chatMessages.size() - 1; i >= 0; i--) {
+            ChatMessage shown = chatMessages.get(i);
+            if (clientId.equals(shown.getClientId())) {
+                ChatMessage.Delivery current = shown.getDelivery();
+                if (current == null || current == delivery || current == ChatMessage.Delivery.DELIVERED) {
+                    return false;
+                }
+                if (delivery != ChatMessage.Delivery.DELIVERED && shown.getDeliveryAttempt() != attempt) {
+                    return false;
+                }
+                chatMessages.set(i, delivery == ChatMessage.Delivery.PENDING
+                        ? shown.nextAttempt() : shown.withDelivery(delivery));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addSystemMessage(String message) {
+        chatMessages.add(ChatMessage.system(message));
+        trimTranscript();
+        scrollToLatest();
+    }
+
+    private void scrollToLatest() {
+        Platform.runLater(() -> chatView.scrollTo(chatMessages.size() - 1));
+    }
+
+    private void startOnlineStatusUpdates() {
+        String user = currentUser;
+        presenceService = new PresenceService(user, messageWriter, changes -> Platform.runLater(() -> {
+            if (user.equals(currentUser)) {
+                applyPresenceChanges(changes);
+            }
+        }));
+        presenceService.start();
     }
 
     private void clearChat() {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Clear Chat");
-        alert.setHeaderText("Clear all messages?");
-        alert.setContentText("This action cannot be undone. All chat history will be permanently deleted.");
+        alert.setHeaderText("Clear all messages in " + activeRoom().getName() + "?");
+        alert.setContentText("This action cannot be undone. All of this room's history will be permanently deleted.");
 
         // Style the alert
         DialogPane dialogPane = alert.getDialogPane();
@@ -599,19 +1417,31 @@ public class GroupChatApp extends Application {
 
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            try (Connection conn = DatabaseConnector.getConnection()) {
-                Statement stmt = conn.createStatement();
-                stmt.executeUpdate("DELETE FROM messages");
-
-                Platform.runLater(() -> {
-                    chatContainer.getChildren().clear();
-                    addSystemMessage("Chat history cleared by " + currentUser);
-                });
-            } catch (SQLException e) {
-                e.printStackTrace();
-                Platform.runLater(() ->
-                        statusLabel.setText("Error clearing chat history"));
-            }
+            int roomId = activeRoomId;
+            int visit = roomVisit;
+            MessageCache cache = messageCache;
+            onFxThread(AsyncDatabase.run(() -> {
+                MessageRepository.clearHistory(roomId);
+                historyPurger.requestPurge();
+                if (cache != null) {
+                    try {
+                        cache.clear();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }), done -> {
+                if (visit != roomVisit) {
+                    return;
+                }
+                messageIndex.clear();
+                searchField.clear();
+                chatMessages.clear();
+                resetNewerPaging();
+                oldestLoadedMessage = null;
+                hasOlderMessages = false;
+                addSystemMessage("Chat history cleared by " + currentUser);
+            }, error -> statusLabel.setText("Error clearing chat history"));
         }
     }
 
@@ -623,14 +1453,53 @@ public class GroupChatApp extends Application {
 
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            if (onlineStatusUpdate != null) {
-                onlineStatusUpdate.stop();
+            if (presenceService != null) {
+                presenceService.stop();
             }
+            if (messagePoller != null) {
+                messagePoller.stop();
+            }
+            if (relayClient != null) {
+                relayClient.stop();
+                relayClient = null;
+            }
+            if (unreadTracker != null) {
+                unreadTracker.stop();
+                unreadTracker = null;
+            }
+            roomVisit++;
+            if (activeRoomId != Room.DEFAULT_ID) {
+                activeRoomId = Room.DEFAULT_ID;
+                openCache(activeRoomId);
+            }
+            unreadCounts.clear();
+            displayedClientIds.clear();
+            messageIndex.clear();
+            resetNewerPaging();
+            activeSearch = MessageIndex.Query.parse("");
+            String user = currentUser;
+            String token = sessionToken;
+            AsyncDatabase.run(() -> authService.revokeSession(user, token)).exceptionally(error -> {
+                error.printStackTrace();
+                return null;
+            });
             currentUser = null;
+            sessionToken = null;
+            RememberedLogin.clear(REMEMBERED_LOGIN);
             showLoginScreen();
         }
     }
 
+    private static class HistorySync {
+        private final boolean replacesCache;
+        private final List<ChatMessage> messages;
+
+        HistorySync(boolean replacesCache, List<ChatMessage> messages) {
+            this.replacesCache = replacesCache;
+            this.messages = messages;
+        }
+    }
+
     public static void main(String[] args) {
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
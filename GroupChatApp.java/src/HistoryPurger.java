@@ -0,0 +1,149 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes the messages hidden by each room's cleared_before_id watermark.
+ *
+ * Clearing a room only moves the watermark; the rows are removed here afterwards in primary
+ * key ranges of CHUNK_ROWS, each its own short autocommit transaction, with a pause between
+ * chunks at least as long as the chunk took. Concurrent inserts never wait behind one huge
+ * DELETE and the undo log stays small. A MySQL named lock lets only one client purge at a time.
+ *
+ * Usage:
+ *   java HistoryPurger
+ */
+public class HistoryPurger {
+    private static final int CHUNK_ROWS = Integer.getInteger("groupchat.purge.chunkRows", 1000);
+    private static final long MIN_PAUSE_MS = Long.getLong("groupchat.purge.pauseMs", 100);
+    private static final long INTERVAL_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final String LOCK_NAME = "groupchat_history_purge";
+
+    private ScheduledExecutorService scheduler;
+
+    public synchronized void start() {
+        stop();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "history-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::purgeQuietly, INTERVAL_MS, INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Runs a purge now, e.g. right after a room was cleared
+    public synchronized void requestPurge() {
+        if (scheduler != null) {
+            scheduler.execute(this::purgeQuietly);
+        }
+    }
+
+    private void purgeQuietly() {
+        try {
+            purge();
+        } catch (SQLException e) {
+            // Picked up again on the next run; the rows stay hidden meanwhile
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Returns the number of rows deleted; 0 if another client holds the purge lock
+    public static long purge() throws SQLException, InterruptedException {
+        // Unpooled: a long purge would otherwise trip the pool's leak detection
+        try (Connection conn = DatabaseConnector.openDirectConnection()) {
+            if (!acquireLock(conn)) {
+                return 0;
+            }
+            try {
+                long deleted = 0;
+                for (Map.Entry<Integer, Long> room : loadWatermarks(conn).entrySet()) {
+                    deleted += purgeRoom(conn, room.getKey(), room.getValue());
+                }
+                return deleted;
+            } finally {
+                releaseLock(conn);
+            }
+        }
+    }
+
+    private static long purgeRoom(Connection conn, int roomId, long clearedBeforeId)
+            throws SQLException, InterruptedException {
+        long deleted = 0;
+        try (PreparedStatement boundary = conn.prepareStatement(
+                "SELECT id FROM messages WHERE room_id = ? AND id <= ? ORDER BY id LIMIT 1 OFFSET ?");
+             PreparedStatement delete = conn.prepareStatement(
+                     "DELETE FROM messages WHERE room_id = ? AND id <= ?")) {
+            while (true) {
+                // Both walk the (room_id, id) index; earlier chunks are gone, so each pass touches about CHUNK_ROWS entries
+                boundary.setInt(1, roomId);
+                boundary.setLong(2, clearedBeforeId);
+                boundary.setInt(3, CHUNK_ROWS - 1);
+                long upper;
+                try (ResultSet rs = boundary.executeQuery()) {
+                    upper = rs.next() ? rs.getLong(1) : clearedBeforeId;
+                }
+
+                long start = System.nanoTime();
+                delete.setInt(1, roomId);
+                delete.setLong(2, upper);
+                int rows = delete.executeUpdate();
+                deleted += rows;
+                if (upper >= clearedBeforeId) {
+                    break;
+                }
+
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                Thread.sleep(Math.max(MIN_PAUSE_MS, elapsedMs));
+            }
+        }
+        return deleted;
+    }
+
+    // Rooms with anything left to purge below their watermark
+    private static Map<Integer, Long> loadWatermarks(Connection conn) throws SQLException {
+        Map<Integer, Long> watermarks = new LinkedHashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT r.id, r.cleared_before_id FROM rooms r WHERE r.cleared_before_id > 0 " +
+                             "AND EXISTS (SELECT 1 FROM messages m WHERE m.room_id = r.id AND m.id <= r.cleared_before_id)")) {
+            while (rs.next()) {
+                watermarks.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return watermarks;
+    }
+
+    private static boolean acquireLock(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT GET_LOCK('" + LOCK_NAME + "', 0)")) {
+            return rs.next() && rs.getInt(1) == 1;
+        }
+    }
+
+    private static void releaseLock(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SELECT RELEASE_LOCK('" + LOCK_NAME + "')");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        long deleted = purge();
+        System.out.printf("Purged %d messages%n", deleted);
+    }
+}
@@ -0,0 +1,210 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless load generator: N simulated GroupChatApp clients against a real MySQL, no JavaFX.
+ *
+ * Each user runs on its own virtual thread and drives the same data-access code the app uses:
+ * AuthService for the login, then a random mix of MessagePoller-style polls, presence refreshes,
+ * sends through its own MessageWriter (waiting for the commit, i.e. the "delivered" tick) and
+ * history page loads, with think time in between. The report gives throughput and latency
+ * percentiles per action, and database round trips per action as counted by ConnectionPool.
+ * Round trips a writer thread makes on behalf of sends are attributed to "send".
+ *
+ * Usage: java LoadGenerator [users] [durationSeconds] [thinkMs]
+ * Point it at a server with -Dgroupchat.db.url=..., -Dgroupchat.db.user=..., -Dgroupchat.db.password=...
+ * (any MySQL-protocol server will do, e.g. a throwaway local MySQL or MariaDB). The pool is sized
+ * to one connection per user unless -Dgroupchat.db.poolSize is given, since every real client has
+ * its own pool. Load users are named load0001.. and their messages are left in the database.
+ */
+public class LoadGenerator {
+    private static final String PASSWORD = "load-test";
+    private static final int HISTORY_PAGE_SIZE = 100;
+    private static final int POLL_BATCH = 500;
+    private static final int[] ROOMS = {1, 2, 3};
+
+    enum Action {
+        LOGIN, POLL, PRESENCE, SEND, HISTORY
+    }
+
+    private final Map<Action, LatencyHistogram> latencies = new EnumMap<>(Action.class);
+    private final Map<Action, AtomicLong> roundTrips = new EnumMap<>(Action.class);
+    private final AtomicLong errors = new AtomicLong();
+
+    LoadGenerator() {
+        for (Action action : Action.values()) {
+            latencies.put(action, new LatencyHistogram(action.name().toLowerCase(Locale.ROOT)));
+            roundTrips.put(action, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int durationSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        long thinkMs = args.length > 2 ? Long.parseLong(args[2]) : 500;
+
+        // Must be set before DatabaseConnector creates its pool
+        if (System.getProperty("groupchat.db.poolSize") == null) {
+            System.setProperty("groupchat.db.poolSize", Integer.toString(users));
+        }
+
+        DatabaseConnector.initializeDatabase();
+        createUsers(users);
+
+        LoadGenerator generator = new LoadGenerator();
+        Path journals = Files.createTempDirectory("groupchat-load");
+        long rootStart = DatabaseConnector.getPoolStats().getRoundTrips();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 1; i <= users; i++) {
+                String username = userName(i);
+                executor.submit(() -> generator.runUser(username, journals, deadline, thinkMs));
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long totalRoundTrips = DatabaseConnector.getPoolStats().getRoundTrips() - rootStart;
+        generator.report(users, seconds, totalRoundTrips);
+        DatabaseConnector.shutdown();
+    }
+
+    private void runUser(String username, Path journals, long deadline, long thinkMs) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roomId = ROOMS[random.nextInt(ROOMS.length)];
+        MessageWriter writer = new MessageWriter(journals.resolve(username + ".journal"), error -> errors.incrementAndGet());
+        try {
+            AuthService auth = new AuthService();
+            boolean loggedIn = measure(Action.LOGIN, () ->
+                    auth.login(username, PASSWORD).getStatus() == AuthService.Status.SUCCESS);
+            if (!loggedIn) {
+                errors.incrementAndGet();
+                return;
+            }
+
+            List<ChatMessage> page = measure(Action.HISTORY, () -> MessageRepository.loadLatestPage(roomId, HISTORY_PAGE_SIZE));
+            long lastSeenId = page.isEmpty() ? 0 : page.get(page.size() - 1).getId();
+            ChatMessage oldest = page.isEmpty() ? null : page.get(0);
+            Timestamp presenceWatermark = null;
+
+            while (System.nanoTime() < deadline) {
+                int roll = random.nextInt(100);
+                if (roll < 50) {
+                    long since = lastSeenId;
+                    List<ChatMessage> batch = measure(Action.POLL, () -> MessageRepository.loadSince(roomId, since, POLL_BATCH));
+                    if (!batch.isEmpty()) {
+                        lastSeenId = batch.get(batch.size() - 1).getId();
+                    }
+                } else if (roll < 65) {
+                    Timestamp since = presenceWatermark;
+                    presenceWatermark = measure(Action.PRESENCE, () -> UserRepository.loadPresenceSince(since)).getWatermark();
+                } else if (roll < 90) {
+                    String content = "load message " + random.nextLong();
+                    measureSend(writer, username, roomId, content);
+                } else if (oldest != null) {
+                    ChatMessage cursor = oldest;
+                    List<ChatMessage> older = measure(Action.HISTORY, () -> MessageRepository.loadPageBefore(roomId, cursor, HISTORY_PAGE_SIZE));
+                    // Start over from the newest page once the beginning of the room is reached
+                    oldest = older.isEmpty() ? null : older.get(0);
+                } else {
+                    List<ChatMessage> latest = measure(Action.HISTORY, () -> MessageRepository.loadLatestPage(roomId, HISTORY_PAGE_SIZE));
+                    oldest = latest.isEmpty() ? null : latest.get(0);
+                }
+
+                if (thinkMs > 0) {
+                    Thread.sleep(random.nextLong(thinkMs / 2, thinkMs * 3 / 2 + 1));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            e.printStackTrace();
+        } finally {
+            writer.shutdown(5000);
+        }
+    }
+
+    private interface DatabaseCall<T> {
+        T call() throws Exception;
+    }
+
+    private <T> T measure(Action action, DatabaseCall<T> call) throws Exception {
+        long tripsBefore = DatabaseConnector.getRoundTripsOnCurrentThread();
+        long start = System.nanoTime();
+        try {
+            return call.call();
+        } finally {
+            latencies.get(action).recordSince(start);
+            roundTrips.get(action).addAndGet(DatabaseConnector.getRoundTripsOnCurrentThread() - tripsBefore);
+        }
+    }
+
+    // The insert happens on the writer's thread; the latency is until the commit the app waits for
+    private void measureSend(MessageWriter writer, String username, int roomId, String content) throws Exception {
+        long start = System.nanoTime();
+        writer.enqueue(UUID.randomUUID().toString(), roomId, username, content).get(30, TimeUnit.SECONDS);
+        latencies.get(Action.SEND).recordSince(start);
+    }
+
+    private void report(int users, double seconds, long totalRoundTrips) {
+        long attributed = 0;
+        for (Action action : Action.values()) {
+            attributed += roundTrips.get(action).get();
+        }
+        // Whatever the user threads did not make themselves came from the writers flushing sends
+        roundTrips.get(Action.SEND).addAndGet(Math.max(0, totalRoundTrips - attributed));
+
+        System.out.printf(Locale.ROOT, "users=%d duration=%.1fs errors=%d pool=[%s]%n",
+                users, seconds, errors.get(), DatabaseConnector.getPoolStats());
+        System.out.printf(Locale.ROOT, "%-9s %9s %9s %9s %9s %9s %9s %12s%n",
+                "action", "count", "ops/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "trips/op");
+        long totalOps = 0;
+        for (Action action : Action.values()) {
+            LatencyHistogram.Snapshot snapshot = latencies.get(action).snapshot();
+            long count = snapshot.getCount();
+            totalOps += count;
+            System.out.printf(Locale.ROOT, "%-9s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %12.2f%n",
+                    snapshot.getName(), count, count / seconds,
+                    snapshot.percentileNanos(50) / 1e6, snapshot.percentileNanos(90) / 1e6,
+                    snapshot.percentileNanos(99) / 1e6, snapshot.getMaxNanos() / 1e6,
+                    count == 0 ? 0.0 : (double) roundTrips.get(action).get() / count);
+        }
+        System.out.printf(Locale.ROOT, "total     %9d %9.1f ops/s, %.1f round trips/s%n",
+                totalOps, totalOps / seconds, totalRoundTrips / seconds);
+    }
+
+    // One PBKDF2 hash shared by every load user; each login still verifies it in full
+    private static void createUsers(int users) throws SQLException {
+        String hash = PasswordHasher.hash(PASSWORD);
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement insert = conn.prepareStatement(
+                     "INSERT IGNORE INTO users (username, password, color) VALUES (?, ?, '#95A5A6')")) {
+            for (int i = 1; i <= users; i++) {
+                insert.setString(1, userName(i));
+                insert.setString(2, hash);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static String userName(int i) {
+        return String.format(Locale.ROOT, "load%04d", i);
+    }
+}
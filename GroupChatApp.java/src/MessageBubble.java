@@ -0,0 +1,134 @@
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+// A single chat message; styled entirely through ChatStyles classes so rebinding never parses CSS
+public class MessageBubble extends VBox {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("MMM dd, HH:mm");
+
+    private final Label senderLabel = new Label();
+    private final Label timeLabel = new Label();
+    private final Label messageLabel = new Label();
+    private final TextFlow highlightedText = new TextFlow();
+    private final Label statusLabel = new Label();
+    private String memberClass = ChatStyles.UNKNOWN_MEMBER;
+    private String deliveryClass = "pending";
+    private ChatMessage message;
+    private Consumer<ChatMessage> onRetry = message -> {
+    };
+
+    public MessageBubble() {
+        super(8);
+        getStyleClass().addAll(ChatStyles.BUBBLE, memberClass);
+
+        HBox header = new HBox(15);
+        header.setAlignment(Pos.CENTER_LEFT);
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        senderLabel.getStyleClass().add("sender");
+        timeLabel.getStyleClass().add("time");
+        header.getChildren().addAll(senderLabel, spacer, timeLabel);
+
+        messageLabel.getStyleClass().add("body");
+        messageLabel.setWrapText(true);
+
+        highlightedText.setVisible(false);
+        highlightedText.setManaged(false);
+
+        statusLabel.getStyleClass().addAll("status", deliveryClass);
+        statusLabel.setOnMouseClicked(e -> {
+            if (message != null && message.getDelivery() == ChatMessage.Delivery.FAILED) {
+                onRetry.accept(message);
+            }
+        });
+
+        getChildren().addAll(header, messageLabel, highlightedText, statusLabel);
+    }
+
+    public void setOnRetry(Consumer<ChatMessage> onRetry) {
+        this.onRetry = onRetry;
+    }
+
+    public void bind(ChatMessage message) {
+        bind(message, List.of());
+    }
+
+    // Matches are [start, end) ranges of the content to emphasize, e.g. search hits
+    public void bind(ChatMessage message, List<int[]> matches) {
+        String newClass = ChatStyles.memberClass(message.getSender());
+        if (!newClass.equals(memberClass)) {
+            getStyleClass().set(getStyleClass().indexOf(memberClass), newClass);
+            memberClass = newClass;
+        }
+
+        this.message = message;
+        senderLabel.setText(message.getSender());
+        timeLabel.setText(message.getTimestamp().format(TIME_FORMAT));
+        showContent(message.getContent(), matches);
+        showDelivery(message.getDelivery());
+    }
+
+    private void showDelivery(ChatMessage.Delivery delivery) {
+        statusLabel.setVisible(delivery != null);
+        statusLabel.setManaged(delivery != null);
+        if (delivery == null) {
+            return;
+        }
+
+        String newClass = delivery.name().toLowerCase(Locale.ROOT);
+        if (!newClass.equals(deliveryClass)) {
+            statusLabel.getStyleClass().set(statusLabel.getStyleClass().indexOf(deliveryClass), newClass);
+            deliveryClass = newClass;
+        }
+        switch (delivery) {
+            case PENDING -> statusLabel.setText("Sending...");
+            case DELIVERED -> statusLabel.setText("✓ Delivered");
+            case FAILED -> statusLabel.setText("⚠ Not delivered - click to retry");
+        }
+    }
+
+    private void showContent(String content, List<int[]> matches) {
+        boolean highlight = !matches.isEmpty();
+
+        messageLabel.setVisible(!highlight);
+        messageLabel.setManaged(!highlight);
+        highlightedText.setVisible(highlight);
+        highlightedText.setManaged(highlight);
+
+        if (!highlight) {
+            messageLabel.setText(content);
+            return;
+        }
+
+        highlightedText.getChildren().clear();
+        int position = 0;
+        for (int[] match : matches) {
+            if (match[0] > position) {
+                highlightedText.getChildren().add(styledText(content.substring(position, match[0]), "body-text"));
+            }
+            highlightedText.getChildren().add(styledText(content.substring(match[0], match[1]), "match"));
+            position = match[1];
+        }
+        if (position < content.length()) {
+            highlightedText.getChildren().add(styledText(content.substring(position), "body-text"));
+        }
+    }
+
+    private static Text styledText(String value, String styleClass) {
+        Text text = new Text(value);
+        text.getStyleClass().add(styleClass);
+        return text;
+    }
+}
@@ -0,0 +1,297 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped local copy of the newest part of the message history, keyed by
+ * message id, so the client can render at startup before touching MySQL.
+ *
+ * File layout: a header (magic, version) followed by records of
+ * [int payloadLength][int crc32][long id][long epochMillis][clientId][sender][content],
+ * where each string is an int byte length (-1 for null) plus UTF-8 bytes. The mapped region
+ * beyond the last record is zero-filled, so a zero length marks the end of the log. Records
+ * that fail their checksum, and everything after them, are discarded when the file is opened.
+ */
+public class MessageCache {
+    private static final int MAGIC = 0x47434D43; // "GCMC"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+
+    // Once the log holds this many records it is rewritten with only the newest RETAINED_RECORDS
+    private static final int COMPACT_THRESHOLD = 50000;
+    private static final int RETAINED_RECORDS = 20000;
+
+    private final Path path;
+    private final int roomId;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int writePosition;
+
+    // Records are appended in id order, so a pair of sorted arrays is enough for lookups
+    private long[] ids = new long[1024];
+    private int[] offsets = new int[1024];
+    private int count;
+
+    private MessageCache(Path path, int roomId) {
+        this.path = path;
+        this.roomId = roomId;
+    }
+
+    // One cache file per room; records do not store the room, it is implied by the file
+    public static MessageCache open(Path path, int roomId) throws IOException {
+        Files.createDirectories(path.getParent());
+        MessageCache cache = new MessageCache(path, roomId);
+        cache.map();
+        if (cache.count > COMPACT_THRESHOLD) {
+            cache.compact();
+        }
+        return cache;
+    }
+
+    public int getRoomId() {
+        return roomId;
+    }
+
+    public synchronized long getMaxId() {
+        return count == 0 ? 0 : ids[count - 1];
+    }
+
+    public synchronized List<ChatMessage> loadLatest(int limit) {
+        return readRange(Math.max(0, count - limit), count);
+    }
+
+    public synchronized List<ChatMessage> loadBefore(long id, int limit) {
+        int end = lowerBound(id);
+        return readRange(Math.max(0, end - limit), end);
+    }
+
+    // Only messages newer than the cached tail are kept; anything older is already here or never will be
+    public synchronized void append(List<ChatMessage> messages) throws IOException {
+        if (channel == null) {
+            // Closed by a room switch while a poll was in flight
+            return;
+        }
+        for (ChatMessage message : messages) {
+            if (message.getId() <= getMaxId() || message.getRoomId() != roomId) {
+                continue;
+            }
+            byte[] payload = encode(message);
+            ensureCapacity(RECORD_HEADER_SIZE + payload.length);
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            int offset = writePosition;
+            buffer.putInt(offset, payload.length);
+            buffer.putInt(offset + 4, (int) crc.getValue());
+            buffer.put(offset + RECORD_HEADER_SIZE, payload);
+            writePosition += RECORD_HEADER_SIZE + payload.length;
+            index(message.getId(), offset);
+        }
+    }
+
+    public synchronized void clear() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+        ids = new long[1024];
+        offsets = new int[1024];
+        count = 0;
+        map();
+    }
+
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    private void map() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        boolean fresh = size < HEADER_SIZE;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, INITIAL_CAPACITY));
+
+        if (!fresh && (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)) {
+            // Unknown format: start over rather than guess
+            channel.close();
+            Files.delete(path);
+            map();
+            return;
+        }
+
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        writePosition = HEADER_SIZE;
+        scan();
+    }
+
+    private void scan() {
+        int capacity = buffer.capacity();
+        while (writePosition + RECORD_HEADER_SIZE <= capacity) {
+            int length = buffer.getInt(writePosition);
+            if (length == 0) {
+                break;
+            }
+            // Subtracting keeps a damaged, huge length from overflowing the bounds check
+            if (length < 0 || length > capacity - writePosition - RECORD_HEADER_SIZE) {
+                truncateCorruptTail("bad record length");
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            buffer.get(writePosition + RECORD_HEADER_SIZE, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            long id = buffer.getLong(writePosition + RECORD_HEADER_SIZE);
+            if ((int) crc.getValue() != buffer.getInt(writePosition + 4) || id <= getMaxId()) {
+                truncateCorruptTail("checksum mismatch");
+                break;
+            }
+
+            index(id, writePosition);
+            writePosition += RECORD_HEADER_SIZE + length;
+        }
+    }
+
+    private void truncateCorruptTail(String reason) {
+        System.err.println("Message cache corrupt at offset " + writePosition + " (" + reason +
+                "), discarding " + (buffer.capacity() - writePosition) + " bytes");
+        for (int i = writePosition; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    private void compact() throws IOException {
+        List<ChatMessage> retained = readRange(count - RETAINED_RECORDS, count);
+        close();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".compact");
+        Files.deleteIfExists(temp);
+        MessageCache compacted = new MessageCache(temp, roomId);
+        compacted.map();
+        compacted.append(retained);
+        compacted.close();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        ids = new long[1024];
+        offsets = new int[1024];
+        count = 0;
+        map();
+    }
+
+    private void ensureCapacity(int recordSize) throws IOException {
+        if (writePosition + recordSize + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            return;
+        }
+        long capacity = buffer.capacity();
+        while (writePosition + recordSize + RECORD_HEADER_SIZE > capacity) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("Message cache is full");
+        }
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private void index(long id, int offset) {
+        if (count == ids.length) {
+            ids = Arrays.copyOf(ids, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        ids[count] = id;
+        offsets[count] = offset;
+        count++;
+    }
+
+    // First index whose id is >= the given id
+    private int lowerBound(long id) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids[mid] < id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private List<ChatMessage> readRange(int from, int to) {
+        List<ChatMessage> messages = new ArrayList<>(Math.max(0, to - from));
+        for (int i = Math.max(0, from); i < to; i++) {
+            messages.add(decode(offsets[i]));
+        }
+        return messages;
+    }
+
+    private static byte[] encode(ChatMessage message) {
+        byte[] clientId = bytes(message.getClientId());
+        byte[] sender = bytes(message.getSender());
+        byte[] content = bytes(message.getContent());
+        ByteBuffer payload = ByteBuffer.allocate(16 + 12 +
+                length(clientId) + length(sender) + length(content));
+        payload.putLong(message.getId());
+        payload.putLong(message.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        putString(payload, clientId);
+        putString(payload, sender);
+        putString(payload, content);
+        return payload.array();
+    }
+
+    private ChatMessage decode(int offset) {
+        int position = offset + RECORD_HEADER_SIZE;
+        long id = buffer.getLong(position);
+        long epochMillis = buffer.getLong(position + 8);
+        position += 16;
+
+        String[] strings = new String[3];
+        for (int i = 0; i < strings.length; i++) {
+            int length = buffer.getInt(position);
+            position += 4;
+            if (length >= 0) {
+                byte[] data = new byte[length];
+                buffer.get(position, data);
+                strings[i] = new String(data, StandardCharsets.UTF_8);
+                position += length;
+            }
+        }
+
+        LocalDateTime timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+        return new ChatMessage(id, strings[0], roomId, strings[1], strings[2], timestamp);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void putString(ByteBuffer payload, byte[] value) {
+        payload.putInt(value == null ? -1 : value.length);
+        if (value != null) {
+            payload.put(value);
+        }
+    }
+}
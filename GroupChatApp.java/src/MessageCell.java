@@ -0,0 +1,63 @@
+import javafx.scene.control.Control;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.VBox;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Recycled transcript row: the node tree is built once per cell and only rebound on scroll.
+// Styling comes from the ChatStyles stylesheet installed on the scene.
+public class MessageCell extends ListCell<ChatMessage> {
+    private final Function<String, List<int[]>> highlighter;
+
+    private final MessageBubble messageBubble = new MessageBubble();
+    private final VBox systemBox = new VBox();
+    private final Label systemLabel = new Label();
+
+    public MessageCell(ListView<ChatMessage> listView) {
+        this(listView, content -> List.of());
+    }
+
+    // The highlighter returns [start, end) ranges of the content to emphasize, e.g. search matches
+    public MessageCell(ListView<ChatMessage> listView, Function<String, List<int[]>> highlighter) {
+        this(listView, highlighter, message -> {
+        });
+    }
+
+    // onRetry is called when the user clicks a message of ours that failed to deliver
+    public MessageCell(ListView<ChatMessage> listView, Function<String, List<int[]>> highlighter,
+                       Consumer<ChatMessage> onRetry) {
+        this.highlighter = highlighter;
+        messageBubble.setOnRetry(onRetry);
+
+        getStyleClass().add("message-cell");
+        prefWidthProperty().bind(listView.widthProperty().subtract(40));
+        setMaxWidth(Control.USE_PREF_SIZE);
+
+        systemBox.getStyleClass().add(ChatStyles.SYSTEM_BUBBLE);
+        systemLabel.setWrapText(true);
+        systemBox.getChildren().add(systemLabel);
+    }
+
+    @Override
+    protected void updateItem(ChatMessage item, boolean empty) {
+        super.updateItem(item, empty);
+
+        if (empty || item == null) {
+            setGraphic(null);
+            return;
+        }
+
+        if (item.isSystem()) {
+            systemLabel.setText(item.getContent());
+            setGraphic(systemBox);
+            return;
+        }
+
+        messageBubble.bind(item, highlighter.apply(item.getContent()));
+        setGraphic(messageBubble);
+    }
+}
@@ -0,0 +1,401 @@
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Incremental in-memory inverted index over chat messages.
+ *
+ * Every indexed message gets a dense document number; per-document metadata (message id,
+ * timestamp, sender) lives in parallel primitive arrays and each term maps to a sorted
+ * array of document numbers. Queries intersect the shortest posting lists first, expand
+ * prefix terms through the sorted term dictionary, then apply sender and time filters.
+ */
+public class MessageIndex {
+    private static final int INITIAL_DOCS = 1024;
+
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final Map<String, Integer> senderIds = new HashMap<>();
+    private final List<String> senders = new ArrayList<>();
+    private final LongSet indexedIds = new LongSet();
+
+    private long[] messageIds = new long[INITIAL_DOCS];
+    private long[] timestamps = new long[INITIAL_DOCS];
+    private int[] senderOf = new int[INITIAL_DOCS];
+    private int docCount;
+    private long maxIndexedId;
+    // True while every message arrived with a higher id than all before it (the common case)
+    private boolean indexedInIdOrder = true;
+
+    // Messages without a database id (not yet persisted) are skipped; they are indexed once the poller returns them
+    public synchronized void addAll(Collection<ChatMessage> messages) {
+        for (ChatMessage message : messages) {
+            add(message);
+        }
+    }
+
+    public synchronized void add(ChatMessage message) {
+        if (message.isSystem() || message.getId() <= 0 || !indexedIds.add(message.getId())) {
+            return;
+        }
+
+        if (message.getId() < maxIndexedId) {
+            indexedInIdOrder = false;
+        }
+        maxIndexedId = Math.max(maxIndexedId, message.getId());
+
+        int doc = docCount++;
+        if (doc == messageIds.length) {
+            messageIds = Arrays.copyOf(messageIds, doc * 2);
+            timestamps = Arrays.copyOf(timestamps, doc * 2);
+            senderOf = Arrays.copyOf(senderOf, doc * 2);
+        }
+        messageIds[doc] = message.getId();
+        timestamps[doc] = toEpochMillis(message);
+        senderOf[doc] = senderIds.computeIfAbsent(message.getSender(), name -> {
+            senders.add(name);
+            return senders.size() - 1;
+        });
+
+        String text = message.getContent();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+                postings.computeIfAbsent(term, t -> new Postings()).add(doc);
+                start = -1;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        senderIds.clear();
+        senders.clear();
+        indexedIds.clear();
+        docCount = 0;
+        maxIndexedId = 0;
+        indexedInIdOrder = true;
+    }
+
+    public synchronized int size() {
+        return docCount;
+    }
+
+    // Message ids of the newest matches first
+    public synchronized long[] search(Query query, int limit) {
+        int senderId = -1;
+        if (query.sender != null) {
+            Integer id = senderIds.get(query.sender);
+            if (id == null) {
+                return new long[0];
+            }
+            senderId = id;
+        }
+
+        List<DocSet> sets = new ArrayList<>();
+        for (int i = 0; i < query.terms.size(); i++) {
+            DocSet set = lookup(query.terms.get(i), query.prefix.get(i));
+            if (set == null) {
+                return new long[0];
+            }
+            sets.add(set);
+        }
+        // The rarest term drives the scan; the others are only probed
+        sets.sort((a, b) -> Integer.compare(a.estimate, b.estimate));
+        DocSet driver = sets.isEmpty() ? null : sets.get(0);
+
+        // Keep the newest `limit` matching message ids in a min-heap. When documents were indexed in
+        // id order, scanning from the newest document lets us stop as soon as the heap is full.
+        long[] heap = new long[Math.max(1, limit)];
+        int found = 0;
+        int cursor = driver == null ? docCount - 1 : driver.last();
+        while (cursor >= 0) {
+            int doc = cursor;
+            cursor = driver == null ? doc - 1 : driver.previous(doc);
+
+            if (senderId >= 0 && senderOf[doc] != senderId) {
+                continue;
+            }
+            if (timestamps[doc] < query.fromMillis || timestamps[doc] >= query.toMillis) {
+                continue;
+            }
+            boolean matchesAll = true;
+            for (int i = 1; i < sets.size() && matchesAll; i++) {
+                matchesAll = sets.get(i).contains(doc);
+            }
+            if (!matchesAll) {
+                continue;
+            }
+
+            long id = messageIds[doc];
+            if (found < limit) {
+                heap[found++] = id;
+                siftUp(heap, found - 1);
+                if (found == limit && indexedInIdOrder) {
+                    break;
+                }
+            } else if (limit > 0 && id > heap[0]) {
+                heap[0] = id;
+                siftDown(heap, 0, found);
+            }
+        }
+
+        long[] result = Arrays.copyOf(heap, found);
+        Arrays.sort(result);
+        for (int i = 0, j = result.length - 1; i < j; i++, j--) {
+            long swap = result[i];
+            result[i] = result[j];
+            result[j] = swap;
+        }
+        return result;
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= heap[i]) {
+                return;
+            }
+            long swap = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = swap;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int i, int size) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && heap[left] < heap[smallest]) {
+                smallest = left;
+            }
+            if (right < size && heap[right] < heap[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            long swap = heap[smallest];
+            heap[smallest] = heap[i];
+            heap[i] = swap;
+            i = smallest;
+        }
+    }
+
+    // Exact terms are served straight from their posting list; prefix expansions are OR-ed into a bitset
+    private DocSet lookup(String term, boolean prefix) {
+        if (!prefix) {
+            Postings exact = postings.get(term);
+            return exact == null ? null : new DocSet(exact);
+        }
+
+        Collection<Postings> expansions = postings.subMap(term, true, term + Character.MAX_VALUE, false).values();
+        if (expansions.isEmpty()) {
+            return null;
+        }
+        if (expansions.size() == 1) {
+            return new DocSet(expansions.iterator().next());
+        }
+        BitSet union = new BitSet(docCount);
+        int estimate = 0;
+        for (Postings p : expansions) {
+            for (int i = 0; i < p.size; i++) {
+                union.set(p.docs[i]);
+            }
+            estimate += p.size;
+        }
+        return new DocSet(union, estimate);
+    }
+
+    private static long toEpochMillis(ChatMessage message) {
+        return message.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Parsed search input. Plain words must all match; a trailing '*' makes a word a prefix,
+     * and the last word is always treated as a prefix so results update while typing.
+     * Filters: from:NAME, after:YYYY-MM-DD, before:YYYY-MM-DD.
+     */
+    public static class Query {
+        private final List<String> terms = new ArrayList<>();
+        private final List<Boolean> prefix = new ArrayList<>();
+        private String sender;
+        private long fromMillis = Long.MIN_VALUE;
+        private long toMillis = Long.MAX_VALUE;
+
+        public static Query parse(String input) {
+            Query query = new Query();
+            String[] words = input.trim().split("\\s+");
+            for (String word : words) {
+                String lower = word.toLowerCase(Locale.ROOT);
+                if (lower.startsWith("from:") && lower.length() > 5) {
+                    query.sender = word.substring(5).toUpperCase(Locale.ROOT);
+                } else if (lower.startsWith("after:")) {
+                    query.fromMillis = parseDay(lower.substring(6), query.fromMillis);
+                } else if (lower.startsWith("before:")) {
+                    query.toMillis = parseDay(lower.substring(7), query.toMillis);
+                } else {
+                    boolean explicitPrefix = lower.endsWith("*");
+                    // Tokenize the same way documents are, so "don't" matches "don" + "t"
+                    String[] tokens = lower.replace("*", "").split("[^\\p{L}\\p{Nd}]+");
+                    for (String token : tokens) {
+                        if (!token.isEmpty()) {
+                            query.terms.add(token);
+                            query.prefix.add(explicitPrefix);
+                        }
+                    }
+                }
+            }
+            if (!query.prefix.isEmpty()) {
+                query.prefix.set(query.prefix.size() - 1, true);
+            }
+            return query;
+        }
+
+        public boolean isEmpty() {
+            return terms.isEmpty() && sender == null && fromMillis == Long.MIN_VALUE && toMillis == Long.MAX_VALUE;
+        }
+
+        // Character ranges in text that match a query term, as [start, end) pairs
+        public List<int[]> findMatches(String text) {
+            List<int[]> matches = new ArrayList<>();
+            if (terms.isEmpty()) {
+                return matches;
+            }
+            int start = -1;
+            for (int i = 0; i <= text.length(); i++) {
+                boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+                    for (int t = 0; t < terms.size(); t++) {
+                        String term = terms.get(t);
+                        if (prefix.get(t) ? word.startsWith(term) : word.equals(term)) {
+                            matches.add(new int[]{start, prefix.get(t) ? start + term.length() : i});
+                            break;
+                        }
+                    }
+                    start = -1;
+                }
+            }
+            return matches;
+        }
+
+        private static long parseDay(String value, long fallback) {
+            try {
+                return LocalDate.parse(value).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                return fallback;
+            }
+        }
+    }
+
+    private static class DocSet {
+        private final Postings list;
+        private final BitSet bits;
+        private final int estimate;
+
+        DocSet(Postings list) {
+            this.list = list;
+            this.bits = null;
+            this.estimate = list.size;
+        }
+
+        DocSet(BitSet bits, int estimate) {
+            this.list = null;
+            this.bits = bits;
+            this.estimate = estimate;
+        }
+
+        int last() {
+            return list != null ? list.docs[list.size - 1] : bits.length() - 1;
+        }
+
+        // Next lower document in the set, or -1
+        int previous(int doc) {
+            if (bits != null) {
+                return bits.previousSetBit(doc - 1);
+            }
+            int index = Arrays.binarySearch(list.docs, 0, list.size, doc);
+            return index > 0 ? list.docs[index - 1] : -1;
+        }
+
+        boolean contains(int doc) {
+            return bits != null ? bits.get(doc) : Arrays.binarySearch(list.docs, 0, list.size, doc) >= 0;
+        }
+    }
+
+    private static class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            // Documents are numbered in insertion order, so appends keep the list sorted
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+    }
+
+    // Open-addressing set of message ids, so re-delivered messages are not indexed twice
+    private static class LongSet {
+        private static final long EMPTY = 0;
+
+        private long[] slots = new long[1024];
+        private int size;
+
+        boolean add(long value) {
+            if (size * 2 >= slots.length) {
+                rehash();
+            }
+            int mask = slots.length - 1;
+            int i = Long.hashCode(value * 0x9E3779B97F4A7C15L) & mask;
+            while (slots[i] != EMPTY) {
+                if (slots[i] == value) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            slots[i] = value;
+            size++;
+            return true;
+        }
+
+        void clear() {
+            slots = new long[1024];
+            size = 0;
+        }
+
+        private void rehash() {
+            long[] old = slots;
+            slots = new long[old.length * 2];
+            size = 0;
+            for (long value : old) {
+                if (value != EMPTY) {
+                    add(value);
+                }
+            }
+        }
+    }
+}
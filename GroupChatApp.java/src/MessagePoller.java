@@ -0,0 +1,102 @@
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Fetches only the active room's messages newer than the last one seen; each tick is an index range scan.
+ *
+ * Every start() gets its own Cursor, captured by the tasks it schedules. shutdownNow() only
+ * interrupts, so a tick for the previous room can still be running after a restart; it then moves
+ * its own cursor, never the new one (message ids are global, so that would skip the new room's).
+ */
+public class MessagePoller {
+    public static final long FAST_INTERVAL_MS = 1000;
+    // While the relay delivers in real time, polling only reconciles what the relay may have missed
+    public static final long RECONCILE_INTERVAL_MS = 30000;
+    private static final int MAX_BATCH = 500;
+
+    private final Consumer<List<ChatMessage>> listener;
+    private final Backoff backoff = new Backoff(FAST_INTERVAL_MS, RECONCILE_INTERVAL_MS);
+    private ScheduledExecutorService scheduler;
+    private volatile Cursor cursor;
+
+    public MessagePoller(Consumer<List<ChatMessage>> listener) {
+        this.listener = listener;
+    }
+
+    public synchronized void start(int roomId, long lastSeenId, long intervalMs) {
+        schedule(new Cursor(roomId, lastSeenId), intervalMs);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Keeps the room and position; used when the relay connection comes or goes
+    public synchronized void changeInterval(long intervalMs) {
+        if (scheduler != null) {
+            // Same room, so a tick still running on the old schedule may keep moving the same cursor
+            schedule(cursor, intervalMs);
+        }
+    }
+
+    private void schedule(Cursor next, long intervalMs) {
+        stop();
+        cursor = next;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "message-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> poll(next), intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public long getLastSeenId() {
+        Cursor current = cursor;
+        return current != null ? current.lastSeenId : 0;
+    }
+
+    private void poll(Cursor cursor) {
+        if (!backoff.isReady()) {
+            return;
+        }
+        try {
+            List<ChatMessage> batch;
+            do {
+                long start = System.nanoTime();
+                batch = MessageRepository.loadSince(cursor.roomId, cursor.lastSeenId, MAX_BATCH);
+                Metrics.record(Metrics.POLL, start);
+                if (!batch.isEmpty()) {
+                    cursor.lastSeenId = batch.get(batch.size() - 1).getId();
+                    listener.accept(batch);
+                }
+            } while (batch.size() == MAX_BATCH && cursor == this.cursor);
+            backoff.recordSuccess();
+            DatabaseHealth.reportSuccess();
+        } catch (SQLException e) {
+            // Keep polling, more slowly while the database is down; retries resume from the same position
+            if (DatabaseHealth.isOnline()) {
+                e.printStackTrace();
+            }
+            DatabaseHealth.reportFailure();
+            backoff.recordFailure();
+        }
+    }
+
+    // One room's position, written only by the ticks polling that room
+    private static class Cursor {
+        final int roomId;
+        volatile long lastSeenId;
+
+        Cursor(int roomId, long lastSeenId) {
+            this.roomId = roomId;
+            this.lastSeenId = lastSeenId;
+        }
+    }
+}
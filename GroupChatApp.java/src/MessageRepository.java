@@ -0,0 +1,98 @@
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Keyset-paginated reads of one room's messages, served by the (room_id, timestamp, id) index.
+// Every read joins the room by primary key, so MySQL resolves its cleared_before_id to a constant
+// first and rows hidden by a clear are skipped inside the same index range.
+public class MessageRepository {
+    private static final String COLUMNS = "SELECT m.id, m.client_id, m.room_id, m.sender, m.content, m.timestamp " +
+            "FROM rooms r JOIN messages m ON m.room_id = r.id AND m.id > r.cleared_before_id ";
+
+    public static List<ChatMessage> loadLatestPage(int roomId, int limit) throws SQLException {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     COLUMNS + "WHERE r.id = ? ORDER BY m.timestamp DESC, m.id DESC LIMIT ?")) {
+            stmt.setInt(1, roomId);
+            stmt.setInt(2, limit);
+            return readNewestFirst(stmt);
+        }
+    }
+
+    public static List<ChatMessage> loadPageBefore(int roomId, ChatMessage cursor, int limit) throws SQLException {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     COLUMNS + "WHERE r.id = ? AND (m.timestamp < ? OR (m.timestamp = ? AND m.id < ?)) " +
+                             "ORDER BY m.timestamp DESC, m.id DESC LIMIT ?")) {
+            Timestamp timestamp = Timestamp.valueOf(cursor.getTimestamp());
+            stmt.setInt(1, roomId);
+            stmt.setTimestamp(2, timestamp);
+            stmt.setTimestamp(3, timestamp);
+            stmt.setLong(4, cursor.getId());
+            stmt.setInt(5, limit);
+            return readNewestFirst(stmt);
+        }
+    }
+
+    // Served by the (room_id, id) index
+    public static List<ChatMessage> loadSince(int roomId, long lastSeenId, int limit) throws SQLException {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     COLUMNS + "WHERE r.id = ? AND m.id > ? ORDER BY m.id LIMIT ?")) {
+            stmt.setInt(1, roomId);
+            stmt.setLong(2, lastSeenId);
+            stmt.setInt(3, limit);
+            return read(stmt);
+        }
+    }
+
+    // 0 when the room is empty; an index endpoint lookup, so it is cheap to call at startup
+    public static long loadMinId(int roomId) throws SQLException {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT COALESCE(MIN(m.id), 0) FROM rooms r " +
+                             "JOIN messages m ON m.room_id = r.id AND m.id > r.cleared_before_id WHERE r.id = ?")) {
+            stmt.setInt(1, roomId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    // Instant whatever the room's size: one index endpoint lookup and a single-row update.
+    // The hidden rows are deleted afterwards by HistoryPurger.
+    public static void clearHistory(int roomId) throws SQLException {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "UPDATE rooms SET cleared_before_id = GREATEST(cleared_before_id, " +
+                             "(SELECT COALESCE(MAX(id), 0) FROM messages WHERE room_id = ?)) WHERE id = ?")) {
+            stmt.setInt(1, roomId);
+            stmt.setInt(2, roomId);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static List<ChatMessage> readNewestFirst(PreparedStatement stmt) throws SQLException {
+        List<ChatMessage> page = read(stmt);
+        Collections.reverse(page);
+        return page;
+    }
+
+    private static List<ChatMessage> read(PreparedStatement stmt) throws SQLException {
+        List<ChatMessage> messages = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                messages.add(new ChatMessage(
+                        rs.getLong("id"),
+                        rs.getString("client_id"),
+                        rs.getInt("room_id"),
+                        rs.getString("sender"),
+                        rs.getString("content"),
+                        rs.getTimestamp("timestamp").toLocalDateTime()));
+            }
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,364 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind persistence for outgoing messages and presence touches.
+ *
+ * Entries are grouped into one transaction per flush (on MAX_BATCH entries or FLUSH_DELAY_MS,
+ * whichever comes first), so a burst of sends costs one round trip per statement type rather
+ * than two per message. Messages are journaled to disk before they are queued and stay in the
+ * journal until committed; together with a no-op ON DUPLICATE KEY UPDATE on client_id this gives
+ * at-least-once delivery across MySQL outages and restarts without duplicate rows. (Not INSERT
+ * IGNORE: that would also turn a missing room or sender into a warning and drop the row silently.)
+ *
+ * While MySQL is unreachable the journal acts as an offline outbox: retries back off
+ * exponentially with jitter, presence touches are coalesced to one per user, and the backlog
+ * drains in MAX_BATCH transactions once a connection succeeds again. Only transient errors are
+ * retried; an entry the database rejects outright fails its future and is moved to a
+ * ".rejected" file next to the journal instead of blocking everything queued behind it.
+ */
+public class MessageWriter {
+    private static final int MAX_BATCH = 50;
+    private static final long FLUSH_DELAY_MS = 100;
+    private static final long INITIAL_RETRY_DELAY_MS = 1000;
+    private static final long MAX_RETRY_DELAY_MS = 30000;
+
+    private final Path journal;
+    private final Consumer<SQLException> errorListener;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Object journalLock = new Object();
+    private final Set<String> queuedTouches = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pendingMessages = new AtomicInteger();
+    private final Backoff backoff = new Backoff(INITIAL_RETRY_DELAY_MS, MAX_RETRY_DELAY_MS);
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public MessageWriter(Path journal, Consumer<SQLException> errorListener) {
+        this.journal = journal;
+        this.errorListener = errorListener;
+
+        // Anything left over from a previous run goes out first
+        for (Entry entry : readJournal()) {
+            queue.add(entry);
+            pendingMessages.incrementAndGet();
+        }
+
+        flusher = new Thread(this::runLoop, "message-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    public CompletableFuture<Void> enqueue(String clientId, int roomId, String sender, String content) {
+        Entry entry = new Entry(clientId, roomId, sender, content);
+        synchronized (journalLock) {
+            appendToJournal(entry);
+            queue.add(entry);
+        }
+        pendingMessages.incrementAndGet();
+        return entry.committed;
+    }
+
+    // Coalesced with any other touches and messages in the same flush, and with
+    // touches still waiting from earlier heartbeats while the database is down
+    public void touchPresence(String username) {
+        if (queuedTouches.add(username)) {
+            queue.add(new Entry(null, 0, username, null));
+        }
+    }
+
+    // Messages accepted but not yet committed, including any replayed from the journal
+    public int getPendingCount() {
+        return pendingMessages.get();
+    }
+
+    public void shutdown(long timeoutMillis) {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runLoop() {
+        List<Entry> batch = new ArrayList<>();
+        while (running) {
+            try {
+                Entry first = queue.take();
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_DELAY_MS);
+                while (batch.size() < MAX_BATCH) {
+                    long remaining = deadline - System.nanoTime();
+                    Entry next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flushWithRetry(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Shutting down: one last attempt, anything unsent stays in the journal
+                queue.drainTo(batch);
+                if (!batch.isEmpty()) {
+                    try {
+                        flush(batch);
+                        compactJournal();
+                    } catch (SQLException ignored) {
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    private void flushWithRetry(List<Entry> batch) throws InterruptedException {
+        SQLException rejected = commitWithRetry(batch);
+        if (rejected != null) {
+            if (batch.size() == 1) {
+                quarantine(batch.get(0), rejected);
+            } else {
+                // Find the entries the database refuses and let the rest through
+                for (Entry entry : batch) {
+                    SQLException error = commitWithRetry(List.of(entry));
+                    if (error != null) {
+                        quarantine(entry, error);
+                    }
+                }
+            }
+        }
+        compactJournal();
+    }
+
+    // Returns null once the batch is committed, or the error if the database rejected it outright;
+    // only errors that can clear up by themselves (lost connection, deadlock, pool timeout) are retried
+    private SQLException commitWithRetry(List<Entry> batch) throws InterruptedException {
+        while (true) {
+            try {
+                long start = System.nanoTime();
+                flush(batch);
+                Metrics.record(Metrics.WRITER_FLUSH, start);
+                backoff.recordSuccess();
+                DatabaseHealth.reportSuccess();
+                return null;
+            } catch (SQLException e) {
+                if (!isTransient(e)) {
+                    // The server answered, so it is reachable even though it refused this batch
+                    e.printStackTrace();
+                    backoff.recordSuccess();
+                    DatabaseHealth.reportSuccess();
+                    return e;
+                }
+                if (DatabaseHealth.isOnline()) {
+                    // Logged once per outage rather than on every retry
+                    e.printStackTrace();
+                }
+                DatabaseHealth.reportFailure();
+                errorListener.accept(e);
+                Thread.sleep(backoff.recordFailure());
+            }
+        }
+    }
+
+    private static boolean isTransient(SQLException e) {
+        if (e instanceof SQLTransientException || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        // Connection failures (08xxx) and rolled-back transactions such as deadlocks (40xxx)
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("08") || state.startsWith("40"));
+    }
+
+    // Moves an entry the database will never accept out of the way so the queue behind it keeps moving
+    private void quarantine(Entry entry, SQLException error) {
+        if (entry.isMessage()) {
+            pendingMessages.decrementAndGet();
+            synchronized (journalLock) {
+                try {
+                    try (BufferedWriter writer = Files.newBufferedWriter(rejectedFile(), StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                        writer.write(entry.toJournalLine());
+                        writer.newLine();
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        } else {
+            queuedTouches.remove(entry.sender);
+        }
+        entry.committed.completeExceptionally(error);
+    }
+
+    private Path rejectedFile() {
+        return journal.resolveSibling(journal.getFileName() + ".rejected");
+    }
+
+    private void flush(List<Entry> batch) throws SQLException {
+        Set<String> touched = new LinkedHashSet<>();
+        try (Connection conn = DatabaseConnector.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(
+                         "INSERT INTO messages (client_id, room_id, sender, sender_id, content) " +
+                                 "VALUES (?, ?, ?, (SELECT id FROM users WHERE username = ?), ?) " +
+                                 "ON DUPLICATE KEY UPDATE id = id");
+                 PreparedStatement touch = conn.prepareStatement(
+                         "UPDATE users SET last_online = CURRENT_TIMESTAMP WHERE username = ?")) {
+                boolean hasMessages = false;
+                for (Entry entry : batch) {
+                    touched.add(entry.sender);
+                    if (entry.isMessage()) {
+                        insert.setString(1, entry.clientId);
+                        insert.setInt(2, entry.roomId);
+                        insert.setString(3, entry.sender);
+                        insert.setString(4, entry.sender);
+                        insert.setString(5, entry.content);
+                        insert.addBatch();
+                        hasMessages = true;
+                    }
+                }
+                if (hasMessages) {
+                    insert.executeBatch();
+                }
+
+                for (String username : touched) {
+                    touch.setString(1, username);
+                    touch.addBatch();
+                }
+                touch.executeBatch();
+
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+
+        for (Entry entry : batch) {
+            if (entry.isMessage()) {
+                pendingMessages.decrementAndGet();
+            } else {
+                queuedTouches.remove(entry.sender);
+            }
+            entry.committed.complete(null);
+        }
+    }
+
+    private void appendToJournal(Entry entry) {
+        try {
+            Files.createDirectories(journal.getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(journal, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(entry.toJournalLine());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Rewrites the journal with only the messages that are still waiting in the queue
+    private void compactJournal() {
+        synchronized (journalLock) {
+            List<String> lines = new ArrayList<>();
+            for (Entry entry : queue) {
+                if (entry.isMessage()) {
+                    lines.add(entry.toJournalLine());
+                }
+            }
+            try {
+                if (lines.isEmpty()) {
+                    Files.deleteIfExists(journal);
+                } else {
+                    Files.write(journal, lines, StandardCharsets.UTF_8);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private List<Entry> readJournal() {
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.exists(journal)) {
+            return entries;
+        }
+        try {
+            List<String> lines = Files.readAllLines(journal, StandardCharsets.UTF_8);
+            for (int i = 0; i < lines.size(); i++) {
+                Entry entry = Entry.fromJournalLine(lines.get(i));
+                if (entry != null) {
+                    entries.add(entry);
+                } else {
+                    // A torn write from a crash; the rest of the journal is still usable
+                    System.err.println("Skipping unreadable outbox journal line " + (i + 1) + " of " + journal);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return entries;
+    }
+
+    private static class Entry {
+        private final String clientId;
+        private final int roomId;
+        private final String sender;
+        private final String content;
+        private final CompletableFuture<Void> committed = new CompletableFuture<>();
+
+        Entry(String clientId, int roomId, String sender, String content) {
+            this.clientId = clientId;
+            this.roomId = roomId;
+            this.sender = sender;
+            this.content = content;
+        }
+
+        boolean isMessage() {
+            return content != null;
+        }
+
+        String toJournalLine() {
+            return LineCodec.join(clientId, Integer.toString(roomId), sender, content);
+        }
+
+        static Entry fromJournalLine(String line) {
+            String[] fields = LineCodec.split(line);
+            if (fields.length == 3) {
+                // Journaled before rooms existed
+                return new Entry(fields[0], Room.DEFAULT_ID, fields[1], fields[2]);
+            }
+            if (fields.length != 4) {
+                return null;
+            }
+            try {
+                return new Entry(fields[0], Integer.parseInt(fields[1]), fields[2], fields[3]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
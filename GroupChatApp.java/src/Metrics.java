@@ -0,0 +1,117 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Process-wide latency histograms, shown in the diagnostics panel and dumped periodically as JSON
+public class Metrics {
+    public static final String SEND_MESSAGE = "sendMessage";
+    public static final String SAVE_MESSAGE = "saveMessageToDatabase";
+    public static final String LOAD_HISTORY = "loadMessagesFromDatabase";
+    public static final String HISTORY_QUERY = "historyQuery";
+    public static final String PRESENCE_REFRESH = "updateUserOnlineStatus";
+    public static final String WRITER_FLUSH = "messageWriterFlush";
+    public static final String POLL = "messagePoll";
+    public static final String FX_PULSE = "fxPulse";
+
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService dumper;
+
+    public static LatencyHistogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    public static void record(String name, long startNanos) {
+        histogram(name).recordSince(startNanos);
+    }
+
+    public static List<LatencyHistogram.Snapshot> snapshots() {
+        List<LatencyHistogram.Snapshot> snapshots = new ArrayList<>();
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            snapshots.add(histogram.snapshot());
+        }
+        snapshots.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return snapshots;
+    }
+
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            histogram.reset();
+        }
+    }
+
+    public static String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"timestamp\":\"").append(Instant.now()).append("\",");
+        ConnectionPool.Stats pool = DatabaseConnector.getPoolStats();
+        json.append("\"pool\":{\"active\":").append(pool.getActive())
+                .append(",\"idle\":").append(pool.getIdle())
+                .append(",\"borrows\":").append(pool.getBorrows())
+                .append(",\"avgBorrowMs\":").append(millis(pool.getAverageBorrowNanos()))
+                .append(",\"maxBorrowMs\":").append(millis(pool.getMaxBorrowNanos()))
+                .append(",\"leaks\":").append(pool.getLeaks())
+                .append(",\"roundTrips\":").append(pool.getRoundTrips()).append("},");
+        json.append("\"operations\":{");
+        boolean first = true;
+        for (LatencyHistogram.Snapshot snapshot : snapshots()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(snapshot.getName()).append("\":{")
+                    .append("\"count\":").append(snapshot.getCount())
+                    .append(",\"meanMs\":").append(millis((long) snapshot.getMeanNanos()))
+                    .append(",\"p50Ms\":").append(millis(snapshot.percentileNanos(50)))
+                    .append(",\"p90Ms\":").append(millis(snapshot.percentileNanos(90)))
+                    .append(",\"p99Ms\":").append(millis(snapshot.percentileNanos(99)))
+                    .append(",\"maxMs\":").append(millis(snapshot.getMaxNanos()))
+                    .append('}');
+        }
+        json.append("}}");
+        return json.toString();
+    }
+
+    // Overwrites the file atomically so a reader never sees half a dump
+    public static synchronized void startDumping(Path file, long intervalMs) {
+        stopDumping();
+        if (intervalMs <= 0) {
+            return;
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleWithFixedDelay(() -> {
+            try {
+                Files.createDirectories(file.getParent());
+                Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+                Files.write(temp, toJson().getBytes(StandardCharsets.UTF_8));
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void stopDumping() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+}
@@ -0,0 +1,89 @@
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+// Salted PBKDF2 hashes stored as "pbkdf2-sha256$<iterations>$<salt>$<hash>" in users.password
+public class PasswordHasher {
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final int ITERATIONS = 310_000;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    public static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = derive(password, salt, ITERATIONS, HASH_BITS);
+        return PREFIX + "$" + ITERATIONS + "$" + ENCODER.encodeToString(salt) + "$" + ENCODER.encodeToString(hash);
+    }
+
+    // Anything else, including a damaged hash, is treated as a legacy plain-text row
+    public static boolean isHashed(String stored) {
+        return iterations(stored) > 0;
+    }
+
+    // Hashes from older, cheaper settings (and legacy plain-text rows) get upgraded on the next good login
+    public static boolean needsRehash(String stored) {
+        return iterations(stored) < ITERATIONS;
+    }
+
+    public static boolean verify(String password, String stored) {
+        if (stored == null) {
+            return false;
+        }
+        if (!isHashed(stored)) {
+            // Rows seeded before hashing was introduced
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String[] parts = stored.split("\\$");
+        byte[] salt;
+        byte[] expected;
+        try {
+            salt = DECODER.decode(parts[2]);
+            expected = DECODER.decode(parts[3]);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (salt.length == 0 || expected.length == 0) {
+            return false;
+        }
+        byte[] actual = derive(password, salt, Integer.parseInt(parts[1]), expected.length * 8);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    // The iteration count of a well-formed hash, or 0
+    private static int iterations(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX + "$")) {
+            return 0;
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(parts[1]));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations, int bits) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, bits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
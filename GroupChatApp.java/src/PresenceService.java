@@ -0,0 +1,124 @@
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Tracks who is online from users.last_online without rescanning the table.
+ *
+ * Heartbeats are skipped while the user is already active (every flushed message touches
+ * last_online), each refresh asks only for rows touched since the newest timestamp already
+ * seen, and expiry is evaluated locally against a TTL. Listeners receive only the members
+ * whose online state actually changed.
+ */
+public class PresenceService {
+    private static final long HEARTBEAT_INTERVAL_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final long REFRESH_INTERVAL_MS = TimeUnit.SECONDS.toMillis(20);
+    private static final long ONLINE_TTL_MS = TimeUnit.MINUTES.toMillis(2);
+
+    private final String currentUser;
+    private final MessageWriter writer;
+    private final Consumer<Map<String, Boolean>> listener;
+    private final Backoff backoff = new Backoff(REFRESH_INTERVAL_MS, TimeUnit.MINUTES.toMillis(5));
+
+    // username -> last_online in local clock millis
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> online = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    private volatile long lastActivity;
+    private long lastHeartbeat;
+    private Timestamp watermark;
+
+    public PresenceService(String currentUser, MessageWriter writer, Consumer<Map<String, Boolean>> listener) {
+        this.currentUser = currentUser;
+        this.writer = writer;
+        this.listener = listener;
+    }
+
+    public synchronized void start() {
+        stop();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "presence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::tick, 0, REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Sends already refresh last_online, so they stand in for the next heartbeat
+    public void recordActivity() {
+        lastActivity = System.currentTimeMillis();
+    }
+
+    private void tick() {
+        heartbeat();
+        if (!backoff.isReady()) {
+            return;
+        }
+        try {
+            refresh();
+            backoff.recordSuccess();
+            DatabaseHealth.reportSuccess();
+        } catch (SQLException e) {
+            if (DatabaseHealth.isOnline()) {
+                e.printStackTrace();
+            }
+            DatabaseHealth.reportFailure();
+            backoff.recordFailure();
+            // Without fresh data everyone would look expired; keep the last known state until we reconnect
+            return;
+        }
+        publishChanges();
+    }
+
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        if (now - Math.max(lastHeartbeat, lastActivity) >= HEARTBEAT_INTERVAL_MS || lastHeartbeat == 0) {
+            writer.touchPresence(currentUser);
+            lastHeartbeat = now;
+        }
+    }
+
+    private void refresh() throws SQLException {
+        long start = System.nanoTime();
+        UserRepository.PresenceDelta delta = UserRepository.loadPresenceSince(watermark);
+        Metrics.record(Metrics.PRESENCE_REFRESH, start);
+        long skew = System.currentTimeMillis() - delta.getDatabaseNow();
+        for (Map.Entry<String, Long> entry : delta.getLastOnline().entrySet()) {
+            lastSeen.put(entry.getKey(), entry.getValue() + skew);
+        }
+        watermark = delta.getWatermark();
+    }
+
+    private void publishChanges() {
+        long now = System.currentTimeMillis();
+        Map<String, Boolean> changes = new HashMap<>();
+        for (Map.Entry<String, Long> entry : lastSeen.entrySet()) {
+            String username = entry.getKey();
+            if (username.equals(currentUser)) {
+                continue;
+            }
+            boolean isOnline = now - entry.getValue() < ONLINE_TTL_MS;
+            Boolean previous = online.put(username, isOnline);
+            if (previous == null ? isOnline : previous != isOnline) {
+                changes.put(username, isOnline);
+            }
+        }
+        if (!changes.isEmpty()) {
+            listener.accept(changes);
+        }
+    }
+}
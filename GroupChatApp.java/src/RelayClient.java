@@ -0,0 +1,240 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Client side of ChatRelayServer; once started, keeps reconnecting in the background until stopped
+// or until the relay refuses the session token
+public class RelayClient {
+    private static final int CONNECT_TIMEOUT_MS = 2000;
+    private static final long RECONNECT_DELAY_MS = TimeUnit.SECONDS.toMillis(5);
+
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String sessionToken;
+    private final Consumer<ChatMessage> messageListener;
+    private final Consumer<Boolean> connectionListener;
+
+    // Sends are serialized on one thread so they leave in the order the user typed them
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "relay-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, CompletableFuture<Boolean>> pendingAcks = new ConcurrentHashMap<>();
+
+    private Thread reader;
+    private volatile boolean running = true;
+    private volatile boolean denied;
+    private volatile Socket socket;
+    private volatile BufferedWriter out;
+    private volatile int roomId = Room.DEFAULT_ID;
+
+    public RelayClient(String host, int port, String username, String sessionToken,
+                       Consumer<ChatMessage> messageListener, Consumer<Boolean> connectionListener) {
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.sessionToken = sessionToken;
+        this.messageListener = messageListener;
+        this.connectionListener = connectionListener;
+    }
+
+    public void start() {
+        reader = Thread.ofVirtual().name("relay-reader").start(this::connectLoop);
+    }
+
+    public boolean isConnected() {
+        return out != null;
+    }
+
+    // Only the subscribed room's messages are pushed; the subscription is replayed after reconnects
+    public void subscribe(int roomId) {
+        this.roomId = roomId;
+        execute(() -> {
+            BufferedWriter writer = out;
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.write(LineCodec.join("ROOM", Integer.toString(roomId)));
+                writer.newLine();
+                writer.flush();
+            } catch (IOException e) {
+                disconnect();
+            }
+        });
+    }
+
+    // Completes with true once the relay has journaled the message, false if it should go another way
+    public CompletableFuture<Boolean> send(String clientId, int roomId, String content) {
+        CompletableFuture<Boolean> ack = new CompletableFuture<>();
+        execute(new SendTask(ack, () -> {
+            BufferedWriter writer = out;
+            if (writer == null) {
+                ack.complete(false);
+                return;
+            }
+            pendingAcks.put(clientId, ack);
+            try {
+                writer.write(LineCodec.join("MSG", clientId, Integer.toString(roomId), content));
+                writer.newLine();
+                writer.flush();
+            } catch (IOException e) {
+                pendingAcks.remove(clientId);
+                ack.complete(false);
+                disconnect();
+            }
+        }));
+        return ack;
+    }
+
+    public void stop() {
+        running = false;
+        // Sends that never got to run would otherwise leave their callers waiting forever
+        for (Runnable task : sender.shutdownNow()) {
+            if (task instanceof SendTask send) {
+                send.ack.complete(false);
+            }
+        }
+        if (reader != null) {
+            reader.interrupt();
+        }
+        disconnect();
+        failPendingAcks();
+    }
+
+    private void execute(Runnable task) {
+        try {
+            sender.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Already stopped
+            if (task instanceof SendTask send) {
+                send.ack.complete(false);
+            }
+        }
+    }
+
+    private void connectLoop() {
+        while (running && !denied) {
+            try (Socket s = new Socket()) {
+                s.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+                s.setTcpNoDelay(true);
+                socket = s;
+
+                BufferedWriter writer = new BufferedWriter(
+                        new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8));
+                int subscribed = roomId;
+                writer.write(LineCodec.join("HELLO", username, sessionToken));
+                writer.newLine();
+                writer.write(LineCodec.join("ROOM", Integer.toString(subscribed)));
+                writer.newLine();
+                writer.flush();
+                out = writer;
+                if (roomId != subscribed) {
+                    subscribe(roomId);
+                }
+                connectionListener.accept(true);
+
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    try {
+                        handle(LineCodec.split(line));
+                    } catch (NumberFormatException | DateTimeException e) {
+                        // Malformed line from a mismatched relay; skip it
+                    }
+                }
+            } catch (IOException e) {
+                // Relay not running or connection lost; fall through to reconnect
+            }
+
+            if (out != null) {
+                out = null;
+                failPendingAcks();
+                if (running) {
+                    connectionListener.accept(false);
+                }
+            }
+            if (denied) {
+                return;
+            }
+
+            try {
+                Thread.sleep(RECONNECT_DELAY_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(String[] fields) {
+        if (fields[0].equals("DENIED")) {
+            // Reconnecting with the same token cannot help; the database poller takes over
+            denied = true;
+        } else if (fields[0].equals("ACK") && fields.length == 2) {
+            CompletableFuture<Boolean> ack = pendingAcks.remove(fields[1]);
+            if (ack != null) {
+                ack.complete(true);
+            }
+        } else if (fields[0].equals("MSG") && fields.length == 6) {
+            LocalDateTime timestamp = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(Long.parseLong(fields[4])), ZoneId.systemDefault());
+            messageListener.accept(new ChatMessage(0, fields[1], Integer.parseInt(fields[2]),
+                    fields[3], fields[5], timestamp));
+        }
+    }
+
+    // Unacknowledged sends may not have reached the relay; callers resend through the database
+    private void failPendingAcks() {
+        for (String clientId : pendingAcks.keySet()) {
+            CompletableFuture<Boolean> ack = pendingAcks.remove(clientId);
+            if (ack != null) {
+                ack.complete(false);
+            }
+        }
+    }
+
+    private static final class SendTask implements Runnable {
+        private final CompletableFuture<Boolean> ack;
+        private final Runnable body;
+
+        SendTask(CompletableFuture<Boolean> ack, Runnable body) {
+            this.ack = ack;
+            this.body = body;
+        }
+
+        @Override
+        public void run() {
+            body.run();
+        }
+    }
+
+    private void disconnect() {
+        Socket s = socket;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+
+// "Stay signed in": the last session token, kept readable only by the current OS user so a restart
+// can go through AuthService.resume instead of paying for PBKDF2 again
+public class RememberedLogin {
+    private final String username;
+    private final String sessionToken;
+
+    public RememberedLogin(String username, String sessionToken) {
+        this.username = username;
+        this.sessionToken = sessionToken;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getSessionToken() {
+        return sessionToken;
+    }
+
+    public static RememberedLogin load(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            String[] fields = lines.isEmpty() ? new String[0] : LineCodec.split(lines.get(0));
+            return fields.length == 2 ? new RememberedLogin(fields[0], fields[1]) : null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public void save(Path file) {
+        try {
+            Files.createDirectories(file.getParent());
+            Files.deleteIfExists(file);
+            if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+            }
+            Files.write(file, List.of(LineCodec.join(username, sessionToken)), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static void clear(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+public class Room {
+    // Every message written before rooms existed lives here
+    public static final int DEFAULT_ID = 1;
+
+    private final int id;
+    private final String name;
+
+    public Room(int id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
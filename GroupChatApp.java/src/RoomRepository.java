@@ -0,0 +1,66 @@
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RoomRepository {
+
+    public static List<Room> loadRooms() throws SQLException {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, name FROM rooms ORDER BY id");
+             ResultSet rs = stmt.executeQuery()) {
+            List<Room> rooms = new ArrayList<>();
+            while (rs.next()) {
+                rooms.add(new Room(rs.getInt("id"), rs.getString("name")));
+            }
+            return rooms;
+        }
+    }
+
+    public static long loadMaxMessageId() throws SQLException {
+        try (Connection conn = DatabaseConnector.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM messages")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // New-message counts per room past a global id watermark; a primary key range scan whatever the room count
+    public static RoomActivity loadActivitySince(long afterId) throws SQLException {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT room_id, COUNT(*) AS new_messages, MAX(id) AS max_id FROM messages " +
+                             "WHERE id > ? GROUP BY room_id")) {
+            stmt.setLong(1, afterId);
+            Map<Integer, Integer> newMessages = new HashMap<>();
+            long maxId = afterId;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    newMessages.put(rs.getInt("room_id"), rs.getInt("new_messages"));
+                    maxId = Math.max(maxId, rs.getLong("max_id"));
+                }
+            }
+            return new RoomActivity(newMessages, maxId);
+        }
+    }
+
+    public static class RoomActivity {
+        private final Map<Integer, Integer> newMessages;
+        private final long maxId;
+
+        RoomActivity(Map<Integer, Integer> newMessages, long maxId) {
+            this.newMessages = newMessages;
+            this.maxId = maxId;
+        }
+
+        public Map<Integer, Integer> getNewMessages() {
+            return newMessages;
+        }
+
+        public long getMaxId() {
+            return maxId;
+        }
+    }
+}
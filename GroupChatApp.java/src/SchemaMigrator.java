@@ -0,0 +1,264 @@
+import java.sql.*;
+import java.util.List;
+
+/**
+ * Brings the group_chat schema up to date with numbered, forward-only migrations.
+ *
+ * Applied versions are recorded in schema_version. Once the database is current, startup
+ * costs a single primary-key lookup. Every migration also checks information_schema before
+ * changing anything, so it is safe on databases created by older builds that predate
+ * schema_version, and safe to rerun after a crash partway through (MySQL DDL is not
+ * transactional). A named lock keeps concurrently starting clients from racing each other.
+ */
+public class SchemaMigrator {
+    private static final String LOCK_NAME = "group_chat_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+    private static final int BACKFILL_CHUNK_ROWS = 10_000;
+
+    @FunctionalInterface
+    private interface Step {
+        void apply(Connection conn, Statement stmt) throws SQLException;
+    }
+
+    private static class Migration {
+        private final int version;
+        private final String description;
+        private final Step step;
+
+        Migration(int version, String description, Step step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "create users and messages", (conn, stmt) -> {
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS users (" +
+                        "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                        "username VARCHAR(50) NOT NULL UNIQUE, " +
+                        "password VARCHAR(255) NOT NULL, " +
+                        "color VARCHAR(7) NOT NULL, " +
+                        "last_online TIMESTAMP)");
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS messages (" +
+                        "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                        "sender VARCHAR(50) NOT NULL, " +
+                        "content TEXT NOT NULL, " +
+                        "timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                        "FOREIGN KEY (sender) REFERENCES users(username))");
+            }),
+
+            // Client-generated ids make write-behind retries idempotent
+            new Migration(2, "add messages.client_id", (conn, stmt) -> {
+                if (!columnExists(conn, "messages", "client_id")) {
+                    stmt.executeUpdate("ALTER TABLE messages ADD COLUMN client_id CHAR(36) NULL UNIQUE AFTER id");
+                }
+            }),
+
+            // Presence refreshes only read users touched since the last check
+            new Migration(3, "index users.last_online", (conn, stmt) -> {
+                if (!indexExists(conn, "users", "idx_users_last_online")) {
+                    stmt.executeUpdate("CREATE INDEX idx_users_last_online ON users (last_online)");
+                }
+            }),
+
+            // Keyset pagination walks messages by (timestamp, id)
+            new Migration(4, "index messages (timestamp, id)", (conn, stmt) -> {
+                if (!indexExists(conn, "messages", "idx_messages_timestamp_id")) {
+                    stmt.executeUpdate("CREATE INDEX idx_messages_timestamp_id ON messages (timestamp, id)");
+                }
+            }),
+
+            // Integer sender key; messages.sender stays as a denormalized display name so reads need no join
+            new Migration(5, "add messages.sender_id", (conn, stmt) -> {
+                if (!columnExists(conn, "messages", "sender_id")) {
+                    stmt.executeUpdate("ALTER TABLE messages ADD COLUMN sender_id INT NULL AFTER sender");
+                }
+                backfillSenderIds(conn);
+                stmt.executeUpdate("ALTER TABLE messages MODIFY sender_id INT NOT NULL");
+                if (!indexExists(conn, "messages", "idx_messages_sender_id")) {
+                    stmt.executeUpdate("CREATE INDEX idx_messages_sender_id ON messages (sender_id, id)");
+                }
+                if (!foreignKeyExists(conn, "messages", "fk_messages_sender_id")) {
+                    stmt.executeUpdate("ALTER TABLE messages ADD CONSTRAINT fk_messages_sender_id " +
+                            "FOREIGN KEY (sender_id) REFERENCES users(id)");
+                }
+                // The old VARCHAR foreign key has a generated name, so look it up
+                String legacyKey = findForeignKey(conn, "messages", "sender");
+                if (legacyKey != null) {
+                    stmt.executeUpdate("ALTER TABLE messages DROP FOREIGN KEY " + legacyKey);
+                }
+                if (!indexExists(conn, "messages", "idx_messages_sender")) {
+                    stmt.executeUpdate("CREATE INDEX idx_messages_sender ON messages (sender)");
+                }
+                // Its leftover implicit index is now covered by idx_messages_sender
+                if (indexExists(conn, "messages", "sender")) {
+                    stmt.executeUpdate("DROP INDEX sender ON messages");
+                }
+            }),
+
+            // Room partitioning column; every existing message belongs to the default room 1
+            new Migration(6, "add messages.room_id", (conn, stmt) -> {
+                if (!columnExists(conn, "messages", "room_id")) {
+                    stmt.executeUpdate("ALTER TABLE messages ADD COLUMN room_id INT NOT NULL DEFAULT 1 AFTER client_id");
+                }
+                if (!indexExists(conn, "messages", "idx_messages_room_timestamp_id")) {
+                    stmt.executeUpdate("CREATE INDEX idx_messages_room_timestamp_id ON messages (room_id, timestamp, id)");
+                }
+            }),
+
+            // Rooms the sidebar lists; the room poller reads new messages by (room_id, id)
+            new Migration(7, "create rooms", (conn, stmt) -> {
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS rooms (" +
+                        "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                        "name VARCHAR(50) NOT NULL UNIQUE, " +
+                        "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+                stmt.executeUpdate("INSERT IGNORE INTO rooms (id, name) VALUES " +
+                        "(1, 'Team Discussion'), (2, 'Announcements'), (3, 'Off Topic')");
+                if (!indexExists(conn, "messages", "idx_messages_room_id")) {
+                    stmt.executeUpdate("CREATE INDEX idx_messages_room_id ON messages (room_id, id)");
+                }
+                if (!foreignKeyExists(conn, "messages", "fk_messages_room_id")) {
+                    stmt.executeUpdate("ALTER TABLE messages ADD CONSTRAINT fk_messages_room_id " +
+                            "FOREIGN KEY (room_id) REFERENCES rooms(id)");
+                }
+            }),
+
+            // Clearing a room hides messages up to this id; HistoryPurger deletes them later in small chunks
+            new Migration(8, "add rooms.cleared_before_id", (conn, stmt) -> {
+                if (!columnExists(conn, "rooms", "cleared_before_id")) {
+                    stmt.executeUpdate("ALTER TABLE rooms ADD COLUMN cleared_before_id INT NOT NULL DEFAULT 0");
+                }
+            }),
+
+            // Login sessions, stored as SHA-256 of the token; the relay checks them on HELLO
+            new Migration(9, "create sessions", (conn, stmt) -> {
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS sessions (" +
+                        "token_hash CHAR(64) PRIMARY KEY, " +
+                        "user_id INT NOT NULL, " +
+                        "expires_at TIMESTAMP NOT NULL, " +
+                        "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                        "INDEX idx_sessions_expires_at (expires_at), " +
+                        "CONSTRAINT fk_sessions_user_id FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE)");
+            })
+    );
+
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    public static void migrate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY, " +
+                    "description VARCHAR(255) NOT NULL, " +
+                    "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+
+            // Fast path: already current, nothing to lock
+            if (currentVersion(stmt) >= latestVersion()) {
+                return;
+            }
+
+            try (ResultSet rs = stmt.executeQuery("SELECT GET_LOCK('" + LOCK_NAME + "', " + LOCK_TIMEOUT_SECONDS + ")")) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for the schema migration lock");
+                }
+            }
+            try {
+                // Another client may have finished while we waited for the lock
+                int current = currentVersion(stmt);
+                for (Migration migration : MIGRATIONS) {
+                    if (migration.version <= current) {
+                        continue;
+                    }
+                    long start = System.nanoTime();
+                    migration.step.apply(conn, stmt);
+                    try (PreparedStatement record = conn.prepareStatement(
+                            "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                        record.setInt(1, migration.version);
+                        record.setString(2, migration.description);
+                        record.executeUpdate();
+                    }
+                    System.out.printf("Applied schema migration %d (%s) in %d ms%n", migration.version,
+                            migration.description, (System.nanoTime() - start) / 1_000_000);
+                }
+            } finally {
+                stmt.executeQuery("SELECT RELEASE_LOCK('" + LOCK_NAME + "')").close();
+            }
+        }
+    }
+
+    private static int currentVersion(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    // Chunked by primary key so a large table is not locked by one giant UPDATE
+    private static void backfillSenderIds(Connection conn) throws SQLException {
+        long maxId;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM messages")) {
+            rs.next();
+            maxId = rs.getLong(1);
+        }
+        try (PreparedStatement update = conn.prepareStatement(
+                "UPDATE messages m JOIN users u ON u.username = m.sender SET m.sender_id = u.id " +
+                        "WHERE m.id > ? AND m.id <= ? AND m.sender_id IS NULL")) {
+            for (long from = 0; from < maxId; from += BACKFILL_CHUNK_ROWS) {
+                update.setLong(1, from);
+                update.setLong(2, from + BACKFILL_CHUNK_ROWS);
+                update.executeUpdate();
+            }
+        }
+    }
+
+    private static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT 1 FROM information_schema.columns " +
+                        "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?")) {
+            stmt.setString(1, table);
+            stmt.setString(2, column);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static boolean indexExists(Connection conn, String table, String index) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT 1 FROM information_schema.statistics " +
+                        "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?")) {
+            stmt.setString(1, table);
+            stmt.setString(2, index);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static boolean foreignKeyExists(Connection conn, String table, String constraint) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT 1 FROM information_schema.table_constraints WHERE table_schema = DATABASE() " +
+                        "AND table_name = ? AND constraint_name = ? AND constraint_type = 'FOREIGN KEY'")) {
+            stmt.setString(1, table);
+            stmt.setString(2, constraint);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static String findForeignKey(Connection conn, String table, String column) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT constraint_name FROM information_schema.key_column_usage WHERE table_schema = DATABASE() " +
+                        "AND table_name = ? AND column_name = ? AND referenced_table_name IS NOT NULL")) {
+            stmt.setString(1, table);
+            stmt.setString(2, column);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+}
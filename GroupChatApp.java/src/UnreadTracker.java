@@ -0,0 +1,69 @@
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Counts messages arriving in rooms the user is not viewing, without loading them.
+ *
+ * Each tick is one grouped primary key range scan past a global id watermark, so the cost
+ * does not grow with the number of rooms. Listeners receive per-room counts of new messages
+ * since the previous tick; counts start from zero at login.
+ */
+public class UnreadTracker {
+    private static final long REFRESH_INTERVAL_MS = TimeUnit.SECONDS.toMillis(5);
+
+    private final Consumer<Map<Integer, Integer>> listener;
+    private final Backoff backoff = new Backoff(REFRESH_INTERVAL_MS, TimeUnit.MINUTES.toMillis(2));
+    private ScheduledExecutorService scheduler;
+    private long watermark = -1;
+
+    public UnreadTracker(Consumer<Map<Integer, Integer>> listener) {
+        this.listener = listener;
+    }
+
+    public synchronized void start() {
+        stop();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "unread-tracker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::tick, 0, REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void tick() {
+        if (!backoff.isReady()) {
+            return;
+        }
+        try {
+            if (watermark < 0) {
+                watermark = RoomRepository.loadMaxMessageId();
+            } else {
+                RoomRepository.RoomActivity activity = RoomRepository.loadActivitySince(watermark);
+                watermark = activity.getMaxId();
+                if (!activity.getNewMessages().isEmpty()) {
+                    listener.accept(activity.getNewMessages());
+                }
+            }
+            backoff.recordSuccess();
+            DatabaseHealth.reportSuccess();
+        } catch (SQLException e) {
+            // Retried on the next tick from the same watermark
+            if (DatabaseHealth.isOnline()) {
+                e.printStackTrace();
+            }
+            DatabaseHealth.reportFailure();
+            backoff.recordFailure();
+        }
+    }
+}
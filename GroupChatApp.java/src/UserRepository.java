@@ -0,0 +1,112 @@
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+
+public class UserRepository {
+
+    // Either a PasswordHasher hash or, for rows not yet upgraded, the legacy plain-text password
+    public static String loadPassword(String username) throws SQLException {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT password FROM users WHERE username = ?")) {
+            stmt.setString(1, username);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString("password") : null;
+            }
+        }
+    }
+
+    public static void updatePassword(String username, String storedPassword) throws SQLException {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "UPDATE users SET password = ? WHERE username = ?")) {
+            stmt.setString(1, storedPassword);
+            stmt.setString(2, username);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Expired sessions are swept on the next full login rather than by a separate job
+    public static void saveSession(String username, String tokenHash, Timestamp expiresAt) throws SQLException {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement insert = conn.prepareStatement(
+                     "INSERT INTO sessions (token_hash, user_id, expires_at) " +
+                             "SELECT ?, id, ? FROM users WHERE username = ?");
+             PreparedStatement sweep = conn.prepareStatement(
+                     "DELETE FROM sessions WHERE expires_at <= CURRENT_TIMESTAMP")) {
+            insert.setString(1, tokenHash);
+            insert.setTimestamp(2, expiresAt);
+            insert.setString(3, username);
+            insert.executeUpdate();
+            sweep.executeUpdate();
+        }
+    }
+
+    public static String loadSessionUser(String tokenHash) throws SQLException {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT u.username FROM sessions s JOIN users u ON u.id = s.user_id " +
+                             "WHERE s.token_hash = ? AND s.expires_at > CURRENT_TIMESTAMP")) {
+            stmt.setString(1, tokenHash);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString("username") : null;
+            }
+        }
+    }
+
+    public static void deleteSession(String tokenHash) throws SQLException {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "DELETE FROM sessions WHERE token_hash = ?")) {
+            stmt.setString(1, tokenHash);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Returns users whose last_online is at or past the watermark; served by idx_users_last_online
+    public static PresenceDelta loadPresenceSince(Timestamp watermark) throws SQLException {
+        try (Connection conn = DatabaseConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT username, last_online, CURRENT_TIMESTAMP AS db_now FROM users " +
+                             "WHERE last_online >= ? ORDER BY last_online")) {
+            stmt.setTimestamp(1, watermark == null ? new Timestamp(0) : watermark);
+            Map<String, Long> lastOnline = new HashMap<>();
+            Timestamp newest = watermark;
+            // With no matching rows there is no server clock reading; assume no skew for this round
+            long databaseNow = System.currentTimeMillis();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp timestamp = rs.getTimestamp("last_online");
+                    lastOnline.put(rs.getString("username"), timestamp.getTime());
+                    newest = timestamp;
+                    databaseNow = rs.getTimestamp("db_now").getTime();
+                }
+            }
+            return new PresenceDelta(lastOnline, databaseNow, newest);
+        }
+    }
+
+    public static class PresenceDelta {
+        private final Map<String, Long> lastOnline;
+        private final long databaseNow;
+        private final Timestamp watermark;
+
+        PresenceDelta(Map<String, Long> lastOnline, long databaseNow, Timestamp watermark) {
+            this.lastOnline = lastOnline;
+            this.databaseNow = databaseNow;
+            this.watermark = watermark;
+        }
+
+        public Map<String, Long> getLastOnline() {
+            return lastOnline;
+        }
+
+        public long getDatabaseNow() {
+            return databaseNow;
+        }
+
+        public Timestamp getWatermark() {
+            return watermark;
+        }
+    }
+}
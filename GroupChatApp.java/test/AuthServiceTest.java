@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthServiceTest {
+
+    @Test
+    void upgradesLegacyPlainTextRowOnFirstGoodLogin() throws Exception {
+        MemoryStore store = new MemoryStore();
+        store.passwords.put("FAITH", "secret");
+
+        assertEquals(AuthService.Status.SUCCESS, new AuthService(store).login("FAITH", "secret").getStatus());
+        String upgraded = store.passwords.get("FAITH");
+        assertTrue(PasswordHasher.isHashed(upgraded));
+        assertFalse(PasswordHasher.needsRehash(upgraded));
+        assertTrue(PasswordHasher.verify("secret", upgraded));
+        assertEquals(1, store.passwordWrites);
+
+        // A fresh service has no cached session, so this checks the upgraded hash and leaves it alone
+        assertEquals(AuthService.Status.SUCCESS, new AuthService(store).login("FAITH", "secret").getStatus());
+        assertEquals(upgraded, store.passwords.get("FAITH"));
+        assertEquals(1, store.passwordWrites);
+    }
+
+    @Test
+    void leavesRowUntouchedAfterWrongPassword() throws Exception {
+        MemoryStore store = new MemoryStore();
+        store.passwords.put("TERRY", "secret");
+
+        assertEquals(AuthService.Status.INVALID, new AuthService(store).login("TERRY", "guess").getStatus());
+        assertEquals("secret", store.passwords.get("TERRY"));
+        assertEquals(0, store.passwordWrites);
+    }
+
+    @Test
+    void resumesWithTheIssuedSessionToken() throws Exception {
+        MemoryStore store = new MemoryStore();
+        store.passwords.put("STYVE", PasswordHasher.hash("secret"));
+
+        String token = new AuthService(store).login("STYVE", "secret").getSessionToken();
+        AuthService restarted = new AuthService(store);
+        assertEquals(AuthService.Status.SUCCESS, restarted.resume("STYVE", token).getStatus());
+        assertEquals(AuthService.Status.INVALID, restarted.resume("TERRY", token).getStatus());
+        assertNotEquals(token, store.sessions.keySet().iterator().next(), "only the token's hash is stored");
+    }
+
+    private static class MemoryStore implements AuthService.CredentialStore {
+        private final Map<String, String> passwords = new HashMap<>();
+        private final Map<String, String> sessions = new HashMap<>();
+        private int passwordWrites;
+
+        @Override
+        public String loadPassword(String username) {
+            return passwords.get(username);
+        }
+
+        @Override
+        public void updatePassword(String username, String storedPassword) {
+            passwordWrites++;
+            passwords.put(username, storedPassword);
+        }
+
+        @Override
+        public void saveSession(String username, String tokenHash, Timestamp expiresAt) {
+            sessions.put(tokenHash, username);
+        }
+
+        @Override
+        public String loadSessionUser(String tokenHash) {
+            return sessions.get(tokenHash);
+        }
+
+        @Override
+        public void deleteSession(String tokenHash) {
+            sessions.remove(tokenHash);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class LineCodecTest {
+
+    @Test
+    void roundTripsFieldsContainingSeparatorsAndEscapes() {
+        String[] fields = {"plain", "tab\there", "line\nbreak", "carriage\rreturn", "back\\slash", "\\t literal", "", "ünïcødé"};
+        String line = LineCodec.join(fields);
+        assertFalse(line.contains("\n"), "a record must stay on one line");
+        assertFalse(line.contains("\r"), "a record must stay on one line");
+        assertArrayEquals(fields, LineCodec.split(line), line);
+    }
+
+    @Test
+    void keepsEmptyFields() {
+        String[] fields = {"", "middle", ""};
+        assertArrayEquals(fields, LineCodec.split(LineCodec.join(fields)));
+        assertEquals(3, LineCodec.split(LineCodec.join(fields)).length);
+    }
+
+    @Test
+    void joinsWithTabs() {
+        assertEquals("a\tb\\tc", LineCodec.join("a", "b\tc"));
+    }
+}
@@ -0,0 +1,162 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageCacheTest {
+    private static final int ROOM = 7;
+    private static final int HEADER_SIZE = 8;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_000_000);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopensWithEverythingAppended() throws IOException {
+        Path file = dir.resolve("room-7.cache");
+        MessageCache cache = MessageCache.open(file, ROOM);
+        cache.append(List.of(
+                new ChatMessage(1, "c-1", ROOM, "FAITH", "hello\nwith ünïcødé", START),
+                new ChatMessage(2, null, ROOM, "TERRY", "", START.plusSeconds(1))));
+        cache.close();
+
+        cache = MessageCache.open(file, ROOM);
+        List<ChatMessage> loaded = cache.loadLatest(10);
+        cache.close();
+        assertEquals(2, loaded.size());
+        ChatMessage first = loaded.get(0);
+        assertEquals(1, first.getId());
+        assertEquals("c-1", first.getClientId());
+        assertEquals(ROOM, first.getRoomId());
+        assertEquals("FAITH", first.getSender());
+        assertEquals("hello\nwith ünïcødé", first.getContent());
+        assertEquals(START, first.getTimestamp());
+        assertNull(loaded.get(1).getClientId());
+        assertEquals("", loaded.get(1).getContent());
+    }
+
+    @Test
+    void ignoresOtherRoomsAndMessagesNotNewerThanTheTail() throws IOException {
+        MessageCache cache = MessageCache.open(dir.resolve("room-7.cache"), ROOM);
+        cache.append(List.of(message(5, "five"), message(3, "three"),
+                new ChatMessage(9, null, ROOM + 1, "FAITH", "other room", START)));
+        cache.append(List.of(message(5, "five again"), message(6, "six")));
+        assertEquals(List.of(5L, 6L), ids(cache.loadLatest(10)));
+        assertEquals(List.of(5L), ids(cache.loadBefore(6, 10)));
+        assertEquals(6, cache.getMaxId());
+        cache.close();
+    }
+
+    @Test
+    void truncatesTheLogAtTheFirstRecordFailingItsChecksum() throws IOException {
+        Path file = dir.resolve("room-7.cache");
+        MessageCache cache = MessageCache.open(file, ROOM);
+        List<ChatMessage> messages = List.of(message(1, "first"), message(2, "second"), message(3, "third"));
+        cache.append(messages);
+        cache.close();
+
+        // Flip the last content byte of record 2, so record 3 follows a damaged record
+        int secondRecordEnd = HEADER_SIZE + recordSize(messages.get(0)) + recordSize(messages.get(1));
+        flipByte(file, secondRecordEnd - 1);
+
+        cache = MessageCache.open(file, ROOM);
+        assertEquals(List.of(1L), ids(cache.loadLatest(10)));
+        assertEquals(1, cache.getMaxId());
+
+        // The discarded tail was zeroed, so a shorter record written over it reopens cleanly
+        cache.append(List.of(message(2, "2")));
+        cache.close();
+        cache = MessageCache.open(file, ROOM);
+        List<ChatMessage> loaded = cache.loadLatest(10);
+        cache.close();
+        assertEquals(List.of(1L, 2L), ids(loaded));
+        assertEquals("2", loaded.get(1).getContent());
+    }
+
+    @Test
+    void truncatesTheLogAtARecordWithAnImpossibleLength() throws IOException {
+        Path file = dir.resolve("room-7.cache");
+        MessageCache cache = MessageCache.open(file, ROOM);
+        List<ChatMessage> messages = List.of(message(1, "first"), message(2, "second"));
+        cache.append(messages);
+        cache.close();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, Integer.MAX_VALUE), HEADER_SIZE + recordSize(messages.get(0)));
+        }
+
+        cache = MessageCache.open(file, ROOM);
+        assertEquals(List.of(1L), ids(cache.loadLatest(10)));
+        cache.close();
+    }
+
+    @Test
+    void compactsToTheNewestRecordsWhenReopenedPastTheThreshold() throws IOException {
+        // MessageCache compacts once it holds more than 50 000 records, keeping the newest 20 000
+        Path file = dir.resolve("room-7.cache");
+        MessageCache cache = MessageCache.open(file, ROOM);
+        List<ChatMessage> messages = new ArrayList<>();
+        for (int id = 1; id <= 50_001; id++) {
+            messages.add(message(id, "message " + id));
+        }
+        cache.append(messages);
+        cache.close();
+        long sizeBefore = Files.size(file);
+
+        cache = MessageCache.open(file, ROOM);
+        List<ChatMessage> retained = cache.loadLatest(Integer.MAX_VALUE);
+        assertEquals(20_000, retained.size());
+        assertEquals(30_002, retained.get(0).getId());
+        assertEquals("message 50001", retained.get(retained.size() - 1).getContent());
+        assertEquals(50_001, cache.getMaxId());
+        cache.append(List.of(message(50_002, "after compaction")));
+        cache.close();
+        assertTrue(Files.size(file) < sizeBefore, "the compacted file is smaller");
+        assertTrue(Files.notExists(file.resolveSibling(file.getFileName() + ".compact")));
+
+        cache = MessageCache.open(file, ROOM);
+        assertEquals(20_001, cache.loadLatest(Integer.MAX_VALUE).size());
+        assertEquals(50_002, cache.getMaxId());
+        cache.close();
+    }
+
+    private static ChatMessage message(long id, String content) {
+        return new ChatMessage(id, null, ROOM, "FAITH", content, START.plusSeconds(id));
+    }
+
+    private static List<Long> ids(List<ChatMessage> messages) {
+        List<Long> ids = new ArrayList<>();
+        for (ChatMessage message : messages) {
+            ids.add(message.getId());
+        }
+        return ids;
+    }
+
+    // [length][crc] header, then id, timestamp and three length-prefixed strings (clientId is null here)
+    private static int recordSize(ChatMessage message) {
+        return 8 + 16 + 12 + message.getSender().getBytes(StandardCharsets.UTF_8).length
+                + message.getContent().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void flipByte(Path file, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, offset);
+            one.put(0, (byte) ~one.get(0)).rewind();
+            channel.write(one, offset);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageIndexTest {
+    private static final LocalDateTime MARCH_1 = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private static MessageIndex sampleIndex() {
+        MessageIndex index = new MessageIndex();
+        index.addAll(List.of(
+                message(1, "FAITH", "Hello everyone", MARCH_1),
+                message(2, "TERRY", "help with the deploy?", MARCH_1.plusDays(1)),
+                message(3, "FAITH", "Helpful link for the deploy", MARCH_1.plusDays(2)),
+                message(4, "STYVE", "lunch at noon", MARCH_1.plusDays(3)),
+                message(5, "TERRY", "Don't deploy on Friday", MARCH_1.plusDays(4))));
+        return index;
+    }
+
+    @Test
+    void lastWordMatchesAsPrefix() {
+        assertArrayEquals(new long[]{3, 2, 1}, sampleIndex().search(MessageIndex.Query.parse("hel"), 10));
+        assertArrayEquals(new long[]{3, 2}, sampleIndex().search(MessageIndex.Query.parse("help"), 10));
+    }
+
+    @Test
+    void earlierWordsMatchExactlyUnlessStarred() {
+        MessageIndex index = sampleIndex();
+        // "help" must be a whole word here, so "Helpful" does not count
+        assertArrayEquals(new long[]{2}, index.search(MessageIndex.Query.parse("help deploy"), 10));
+        assertArrayEquals(new long[]{3, 2}, index.search(MessageIndex.Query.parse("help* deploy"), 10));
+        assertArrayEquals(new long[0], index.search(MessageIndex.Query.parse("lunch deploy"), 10));
+        assertArrayEquals(new long[0], index.search(MessageIndex.Query.parse("nothing"), 10));
+    }
+
+    @Test
+    void tokenizesQueriesLikeMessages() {
+        assertArrayEquals(new long[]{5}, sampleIndex().search(MessageIndex.Query.parse("don't"), 10));
+        assertArrayEquals(new long[]{1}, sampleIndex().search(MessageIndex.Query.parse("HELLO"), 10));
+    }
+
+    @Test
+    void filtersBySender() {
+        MessageIndex index = sampleIndex();
+        assertArrayEquals(new long[]{5, 2}, index.search(MessageIndex.Query.parse("from:terry"), 10));
+        assertArrayEquals(new long[]{3}, index.search(MessageIndex.Query.parse("deploy from:faith"), 10));
+        assertArrayEquals(new long[0], index.search(MessageIndex.Query.parse("from:nobody"), 10));
+    }
+
+    @Test
+    void filtersByDayRange() {
+        MessageIndex index = sampleIndex();
+        // after: is inclusive of its day, before: is exclusive
+        assertArrayEquals(new long[]{4, 3},
+                index.search(MessageIndex.Query.parse("after:2024-03-03 before:2024-03-05"), 10));
+        assertArrayEquals(new long[]{5, 3},
+                index.search(MessageIndex.Query.parse("deploy after:2024-03-03"), 10));
+        assertArrayEquals(new long[]{2},
+                index.search(MessageIndex.Query.parse("deploy before:2024-03-03"), 10));
+    }
+
+    @Test
+    void returnsTheNewestMatchesUpToTheLimit() {
+        MessageIndex index = sampleIndex();
+        assertArrayEquals(new long[]{5, 3}, index.search(MessageIndex.Query.parse("deploy"), 2));
+
+        // Out-of-order arrivals (e.g. history loaded after live messages) must not change which ones win
+        index.add(message(10, "STYVE", "deploy done", MARCH_1.plusDays(6)));
+        index.add(message(7, "FAITH", "deploy notes", MARCH_1.plusDays(5)));
+        index.add(message(8, "FAITH", "deploy again", MARCH_1.plusDays(5)));
+        assertArrayEquals(new long[]{10, 8}, index.search(MessageIndex.Query.parse("deploy"), 2));
+    }
+
+    @Test
+    void skipsSystemUnsavedAndDuplicateMessages() {
+        MessageIndex index = sampleIndex();
+        index.add(ChatMessage.system("FAITH joined"));
+        index.add(ChatMessage.pending("client-1", Room.DEFAULT_ID, "FAITH", "hello again"));
+        index.add(message(1, "FAITH", "Hello everyone", MARCH_1));
+        assertEquals(5, index.size());
+        assertArrayEquals(new long[]{1}, index.search(MessageIndex.Query.parse("hello"), 10));
+    }
+
+    @Test
+    void highlightsMatchedRanges() {
+        List<int[]> matches = MessageIndex.Query.parse("deploy hel").findMatches("Helpful link for the deploy");
+        assertEquals(2, matches.size());
+        assertArrayEquals(new int[]{0, 3}, matches.get(0));
+        assertArrayEquals(new int[]{21, 27}, matches.get(1));
+        assertTrue(MessageIndex.Query.parse("   ").isEmpty());
+    }
+
+    private static ChatMessage message(long id, String sender, String content, LocalDateTime timestamp) {
+        return new ChatMessage(id, sender, content, timestamp);
+    }
+}
@@ -0,0 +1,63 @@
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+
+    @Test
+    void verifiesCurrentHashes() {
+        String stored = PasswordHasher.hash("correct horse");
+        assertTrue(PasswordHasher.isHashed(stored));
+        assertFalse(PasswordHasher.needsRehash(stored));
+        assertTrue(PasswordHasher.verify("correct horse", stored));
+        assertFalse(PasswordHasher.verify("correct horse!", stored));
+    }
+
+    @Test
+    void saltsEveryHash() {
+        assertNotEquals(PasswordHasher.hash("same"), PasswordHasher.hash("same"));
+    }
+
+    @Test
+    void verifiesLegacyPlainTextRowsAndFlagsThemForRehash() {
+        assertFalse(PasswordHasher.isHashed("secret"));
+        assertTrue(PasswordHasher.needsRehash("secret"));
+        assertTrue(PasswordHasher.verify("secret", "secret"));
+        assertFalse(PasswordHasher.verify("Secret", "secret"));
+        assertFalse(PasswordHasher.verify("secret", null));
+    }
+
+    @Test
+    void verifiesHashesWithFewerIterationsAndFlagsThemForRehash() throws Exception {
+        String stored = pbkdf2("secret", new byte[]{1, 2, 3, 4, 5, 6, 7, 8}, 1000);
+        assertTrue(PasswordHasher.isHashed(stored));
+        assertTrue(PasswordHasher.needsRehash(stored));
+        assertTrue(PasswordHasher.verify("secret", stored));
+        assertFalse(PasswordHasher.verify("other", stored));
+    }
+
+    @Test
+    void rejectsDamagedHashes() {
+        String stored = PasswordHasher.hash("secret");
+        String[] parts = stored.split("\\$");
+        assertFalse(PasswordHasher.verify("secret", parts[0] + "$" + parts[1] + "$!!$" + parts[3]));
+        assertFalse(PasswordHasher.verify("secret", parts[0] + "$" + parts[1] + "$" + parts[2] + "$"));
+        // Not well formed, so it is compared as a legacy plain-text row and never matches the password
+        assertFalse(PasswordHasher.isHashed(parts[0] + "$many$" + parts[2] + "$" + parts[3]));
+        assertFalse(PasswordHasher.verify("secret", parts[0] + "$many$" + parts[2] + "$" + parts[3]));
+    }
+
+    // The stored format written by PasswordHasher, with a chosen salt and iteration count
+    private static String pbkdf2(String password, byte[] salt, int iterations) throws Exception {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, 256);
+        byte[] hash = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return "pbkdf2-sha256$" + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+}
@@ -0,0 +1,218 @@
+package com.polynomialsolver.engine;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Times the simultaneous-iteration kernels on random polynomials and reports time and bytes
+ * allocated per solve.
+ *
+ * It lives in the bench source root, outside the shipped module but in the engine's package so it
+ * can reach the package-private kernels; compile it against the engine classes and run it from the
+ * class path.
+ *
+ * Usage: java com.polynomialsolver.engine.RootFinderBenchmark [degree...] [--boxed] [--parallel]
+ * Degrees default to 10, 100 and 1000. The --boxed flag adds the Durand–Kerner kernel as it was
+ * written on top of immutable Complex values (one object per arithmetic operation), for comparison.
+ * The --parallel flag also runs each finder in parallel mode and prints its speedup over the
+ * sequential run (degrees below SimultaneousIteration.PARALLEL_MIN_DEGREE stay sequential anyway,
+ * and so does Durand–Kerner).
+ * Every case cycles through {@link #SEEDS} random polynomials of the same degree, since a single
+ * one can hide a method that only sometimes fails; sweeps is the most any of them took, and
+ * converged counts the ones whose solve reported convergence.
+ * Allocation is measured on the calling thread only, so it leaves out parallel workers.
+ * Each case is warmed up for a second and then measured for two; polishing is off so only the
+ * kernel is timed.
+ */
+public class RootFinderBenchmark {
+    private static final long WARMUP_NANOS = 1_000_000_000L;
+    private static final long MEASURE_NANOS = 2_000_000_000L;
+    private static final int SEEDS = 4;
+    private static final SolverOptions SEQUENTIAL = SolverOptions.DEFAULT.withPolish(false);
+    private static final SolverOptions PARALLEL = SEQUENTIAL.withParallel(true);
+
+    // Keeps the JIT from discarding results
+    private static volatile double sink;
+
+    public static void main(String[] args) {
+        List<Integer> degrees = new ArrayList<>();
+        boolean boxed = false;
+        boolean parallel = false;
+        for (String arg : args) {
+            if (arg.equals("--boxed")) {
+                boxed = true;
+            } else if (arg.equals("--parallel")) {
+                parallel = true;
+            } else {
+                degrees.add(Integer.parseInt(arg));
+            }
+        }
+        if (degrees.isEmpty()) {
+            degrees = List.of(10, 100, 1000);
+        }
+
+        List<RootFinder> finders = List.of(new DurandKerner(), new AberthEhrlich());
+
+        System.out.printf(Locale.ROOT, "%-22s %-10s %7s %10s %10s %8s %14s %9s %8s%n",
+                "finder", "mode", "degree", "ms/solve", "min ms", "sweeps", "bytes/solve", "converged", "speedup");
+        for (int degree : degrees) {
+            List<double[]> coefficients = new ArrayList<>();
+            for (int seed = 0; seed < SEEDS; seed++) {
+                coefficients.add(randomPolynomial(degree, new Random(31L * degree + seed)));
+            }
+            for (RootFinder finder : finders) {
+                double sequentialMs = run(finder, coefficients, SEQUENTIAL, 0);
+                if (parallel) {
+                    run(finder, coefficients, PARALLEL, sequentialMs);
+                }
+            }
+            if (boxed) {
+                run(new BoxedDurandKerner(), coefficients, SEQUENTIAL, 0);
+            }
+        }
+    }
+
+    // Returns the mean ms per solve; the speedup column is printed when a baseline is given
+    private static double run(RootFinder finder, List<double[]> coefficients, SolverOptions options, double baselineMs) {
+        int warmups = 0;
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd) {
+            sink += finder.findRoots(coefficients.get(warmups++ % SEEDS), options).getMaxResidual();
+        }
+
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long minNanos = Long.MAX_VALUE;
+        int runs = 0;
+        int sweeps = 0;
+        boolean[] converged = new boolean[SEEDS];
+        while (runs < SEEDS || System.nanoTime() - start < MEASURE_NANOS) {
+            long runStart = System.nanoTime();
+            RootResult result = finder.findRoots(coefficients.get(runs % SEEDS), options);
+            minNanos = Math.min(minNanos, System.nanoTime() - runStart);
+            sink += result.getMaxResidual();
+            sweeps = Math.max(sweeps, result.getIterations());
+            converged[runs % SEEDS] = result.isConverged();
+            runs++;
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = allocatedBytes() - bytesBefore;
+
+        double meanMs = elapsed / 1e6 / runs;
+        int convergedCount = 0;
+        for (boolean c : converged) {
+            if (c) {
+                convergedCount++;
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "%-22s %-10s %7d %10.3f %10.3f %8d %14s %9s %8s%n",
+                finder.getName(), options.isParallel() ? "parallel" : "sequential", coefficients.get(0).length - 1,
+                meanMs, minNanos / 1e6, sweeps, bytes < 0 ? "n/a" : Long.toString(bytes / runs),
+                convergedCount + "/" + SEEDS,
+                baselineMs > 0 ? String.format(Locale.ROOT, "%.2fx", baselineMs / meanMs) : "");
+        return meanMs;
+    }
+
+    // Bytes allocated by this thread so far, or -1 if the JVM doesn't track it
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            return threads.getThreadAllocatedBytes(Thread.currentThread().threadId());
+        }
+        return -1;
+    }
+
+    private static double[] randomPolynomial(int degree, Random random) {
+        double[] coefficients = new double[degree + 1];
+        for (int i = 0; i <= degree; i++) {
+            coefficients[i] = random.nextGaussian();
+        }
+        // The finders expect non-zero leading and constant terms
+        if (coefficients[0] == 0) {
+            coefficients[0] = 1;
+        }
+        if (coefficients[degree] == 0) {
+            coefficients[degree] = 1;
+        }
+        return coefficients;
+    }
+
+    // The Durand–Kerner sweep on Complex values, as it was before the re/im array kernel
+    private static final class BoxedDurandKerner implements RootFinder {
+
+        @Override
+        public String getName() {
+            return "Durand-Kerner (boxed)";
+        }
+
+        @Override
+        public RootResult findRoots(double[] coefficients, SolverOptions options) {
+            int degree = coefficients.length - 1;
+            double[] re = new double[degree];
+            double[] im = new double[degree];
+            Polynomials.initialGuesses(coefficients, re, im);
+            Complex[] roots = Polynomials.toComplex(re, im);
+            boolean[] done = new boolean[degree];
+            int remaining = degree;
+            int iterations = 0;
+
+            while (remaining > 0 && iterations < options.getMaxIterations()) {
+                iterations++;
+                for (int i = 0; i < degree; i++) {
+                    if (done[i]) {
+                        continue;
+                    }
+                    Complex correction = weierstrassCorrection(coefficients, roots, i);
+                    roots[i] = roots[i].minus(correction);
+                    if (Polynomials.isConverged(coefficients, roots[i].re(), roots[i].im(),
+                            correction.abs(), options.getTolerance())) {
+                        done[i] = true;
+                        remaining--;
+                    }
+                }
+            }
+            return new RootResult(getName(), roots, iterations, remaining == 0,
+                    Polynomials.maxRelativeResidual(coefficients, roots));
+        }
+
+        private static Complex weierstrassCorrection(double[] coefficients, Complex[] roots, int i) {
+            int degree = coefficients.length - 1;
+            Complex z = roots[i];
+            boolean outside = z.abs() > 1;
+            Complex w = outside ? z.reciprocal() : z;
+
+            Complex numerator;
+            if (outside) {
+                Complex q = Complex.real(coefficients[degree]);
+                for (int k = degree - 1; k >= 0; k--) {
+                    q = q.times(w).plus(Complex.real(coefficients[k]));
+                }
+                numerator = z.times(q);
+            } else {
+                numerator = Polynomials.evaluate(coefficients, z);
+            }
+
+            Complex product = Complex.real(coefficients[0]);
+            int exponent = 0;
+            for (int j = 0; j < degree; j++) {
+                if (j == i) {
+                    continue;
+                }
+                Complex factor = outside ? Complex.ONE.minus(roots[j].times(w)) : z.minus(roots[j]);
+                product = product.times(factor);
+                double magnitude = Math.max(Math.abs(product.re()), Math.abs(product.im()));
+                if (magnitude > 0x1p500 || (magnitude < 0x1p-500 && magnitude > 0)) {
+                    int shift = Math.getExponent(magnitude);
+                    product = new Complex(Math.scalb(product.re(), -shift), Math.scalb(product.im(), -shift));
+                    exponent += shift;
+                }
+            }
+            Complex ratio = numerator.dividedBy(product);
+            return new Complex(Math.scalb(ratio.re(), -exponent), Math.scalb(ratio.im(), -exponent));
+        }
+    }
+}
@@ -14,6 +14,9 @@ import javafx.scene.text.Text;
 import javafx.scene.text.TextFlow;
 import com.polynomialsolver.database.DatabaseConnection;
 import com.polynomialsolver.database.TableInitializer;
+import com.polynomialsolver.engine.Complex;
+import com.polynomialsolver.engine.PolynomialSolver;
+import com.polynomialsolver.engine.RootResult;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -54,7 +57,7 @@ public class PolynomialSolverApp extends Application {
         titleLabel.setFont(Font.font("System", FontWeight.BOLD, 28));
         titleLabel.setTextFill(Color.web(DARK_FG));
         
-        Label subtitleLabel = new Label("Solve quadratic and linear equations");
+        Label subtitleLabel = new Label("Solve polynomial equations of any degree");
         subtitleLabel.setFont(Font.font("System", 14));
         subtitleLabel.setTextFill(Color.web("#AAAAAA"));
         
@@ -148,7 +151,7 @@ public class PolynomialSolverApp extends Application {
                     }
 
                     // Solve the polynomial and get the solution
-                    String solution = solvePolynomialSteps(polynomial);
+                    Solution solution = solvePolynomialSteps(polynomial);
                     
                     // Update the displays
                     Platform.runLater(() -> {
@@ -157,7 +160,7 @@ public class PolynomialSolverApp extends Application {
                         solutionDisplay.getChildren().clear();
                         
                         // Add the steps to the display
-                        String[] steps = solution.split("\n");
+                        String[] steps = solution.steps.split("\n");
                         for (String step : steps) {
                             Text stepText = new Text(step + "\n");
                             stepText.setFill(Color.web(DARK_FG));
@@ -166,7 +169,7 @@ public class PolynomialSolverApp extends Application {
                         }
                         
                         // Add the final solution to the display
-                        Text solutionText = new Text(extractFinalSolution(solution));
+                        Text solutionText = new Text(extractFinalSolution(solution.steps));
                         solutionText.setFill(Color.web(HIGHLIGHT_COLOR));
                         solutionText.setFont(Font.font("System", FontWeight.BOLD, 18));
                         solutionDisplay.getChildren().add(solutionText);
@@ -174,7 +177,7 @@ public class PolynomialSolverApp extends Application {
 
                     // Save to database
                     try {
-                        saveToDatabase(polynomial, solution);
+                        saveToDatabase(polynomial, solution.steps, solution.method);
                     } catch (SQLException ex) {
                         showError("Database Error", "Solution was computed but failed to save to database: " + ex.getMessage());
                     }
@@ -216,9 +219,10 @@ public class PolynomialSolverApp extends Application {
         return polynomial.matches(pattern);
     }
 
-    private String solvePolynomialSteps(String polynomial) {
+    private Solution solvePolynomialSteps(String polynomial) {
         StringBuilder steps = new StringBuilder();
         steps.append("Solving: ").append(polynomial).append("\n\n");
+        String method = "algebraic";
 
         try {
             // Parse coefficients
@@ -279,16 +283,45 @@ public class PolynomialSolverApp extends Application {
                 steps.append("4. Linear equation: ax + b = 0\n");
                 steps.append("5. Solution: x = -b/a\n");
                 steps.append("6. x = ").append(String.format("%.4f", x)).append("\n");
+            } else if (degree > 2) {
+                // The engine takes coefficients highest degree first
+                double[] highestFirst = new double[degree + 1];
+                for (int i = 0; i <= degree; i++) {
+                    highestFirst[i] = coefficients.get(degree - i);
+                }
+                RootResult result = PolynomialSolver.solve(highestFirst);
+                method = result.getAlgorithm();
+
+                steps.append("4. Numerical method: ").append(result.getAlgorithm()).append("\n");
+                steps.append("5. ").append(result.isConverged() ? "Converged" : "Did not fully converge")
+                     .append(" after ").append(result.getIterations()).append(" iterations")
+                     .append(" (max residual ").append(String.format("%.2e", result.getMaxResidual())).append(")\n");
+
+                Complex[] roots = result.getRoots();
+                steps.append("\n6. Roots:\n");
+                for (int i = 0; i < roots.length; i++) {
+                    steps.append("   x").append(subscript(i + 1)).append(" = ").append(roots[i].format(4)).append("\n");
+                }
             } else {
-                steps.append("4. This polynomial is of degree ").append(degree).append("\n");
-                steps.append("5. For polynomials of degree > 2, numerical methods are required.\n");
-                steps.append("   Consider using Newton's method or other numerical approaches.\n");
+                if (Math.abs(coefficients.get(0)) < 1e-10) {
+                    steps.append("4. The polynomial is zero: every x is a solution\n");
+                } else {
+                    steps.append("4. A non-zero constant has no roots: there is no solution\n");
+                }
             }
         } catch (Exception e) {
             steps.append("\nError during solving: ").append(e.getMessage());
         }
 
-        return steps.toString();
+        return new Solution(steps.toString(), method);
+    }
+
+    private String subscript(int number) {
+        StringBuilder result = new StringBuilder();
+        for (char digit : Integer.toString(number).toCharArray()) {
+            result.append((char) ('₀' + (digit - '0')));
+        }
+        return result.toString();
     }
 
     private List<Double> parseCoefficients(String polynomial) {
@@ -385,13 +418,13 @@ public class PolynomialSolverApp extends Application {
         return result.toString();
     }
 
-    private void saveToDatabase(String polynomial, String solution) throws SQLException {
+    private void saveToDatabase(String polynomial, String solution, String method) throws SQLException {
         String insertSQL = "INSERT INTO solved_polynomials (polynomial, solution, degree, method_used) VALUES (?, ?, ?, ?)";
         try (PreparedStatement statement = connection.prepareStatement(insertSQL)) {
             statement.setString(1, polynomial);
             statement.setString(2, solution);
             statement.setInt(3, parseCoefficients(polynomial).size() - 1);
-            statement.setString(4, "algebraic");
+            statement.setString(4, method);
             statement.executeUpdate();
         }
     }
@@ -413,4 +446,15 @@ public class PolynomialSolverApp extends Application {
     public static void main(String[] args) {
         launch(args);
     }
-}
\ No newline at end of file
+
+    // The worked steps together with the method that produced them, so a save records the right one
+    private static final class Solution {
+        final String steps;
+        final String method;
+
+        Solution(String steps, String method) {
+            this.steps = steps;
+            this.method = method;
+        }
+    }
+}
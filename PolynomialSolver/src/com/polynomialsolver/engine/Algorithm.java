@@ -0,0 +1,24 @@
+package com.polynomialsolver.engine;
+
+import java.util.function.Supplier;
+
+/**
+ * The built-in root finders. Any other {@link RootFinder} can be passed to
+ * {@link PolynomialSolver#solve(double[], RootFinder, SolverOptions)} directly.
+ */
+public enum Algorithm {
+    DURAND_KERNER(DurandKerner::new),
+    ABERTH_EHRLICH(AberthEhrlich::new),
+    JENKINS_TRAUB(JenkinsTraub::new),
+    COMPANION_MATRIX(CompanionMatrix::new);
+
+    private final Supplier<RootFinder> factory;
+
+    Algorithm(Supplier<RootFinder> factory) {
+        this.factory = factory;
+    }
+
+    public RootFinder finder() {
+        return factory.get();
+    }
+}
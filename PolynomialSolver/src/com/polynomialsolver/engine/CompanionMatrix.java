@@ -0,0 +1,268 @@
+package com.polynomialsolver.engine;
+
+/**
+ * Eigenvalues of the companion matrix, the approach behind MATLAB's roots() and numpy.roots.
+ *
+ * The matrix is already upper Hessenberg, so it is balanced (diagonal similarity by powers of two,
+ * which changes no eigenvalue but evens out row and column norms) and handed straight to the
+ * shifted QR algorithm (hqr, after EISPACK / Numerical Recipes). This is the most robust of the
+ * methods, but it costs O(n^2) memory and O(n^3) time, so it gets slow beyond a few hundred.
+ *
+ * QR converges on its own terms, so {@link SolverOptions} does not apply here: instead of
+ * {@code tolerance} and {@code maxIterations} it uses hqr's own limit of 30 QR steps per
+ * eigenvalue. The reported iterations are the QR steps over all eigenvalues, so for a large degree
+ * they can exceed {@code maxIterations} without anything being wrong.
+ */
+public final class CompanionMatrix implements RootFinder {
+    private static final double RADIX = 2.0;
+    private static final int ITERATIONS_PER_ROOT = 30;
+
+    @Override
+    public String getName() {
+        return "companion matrix";
+    }
+
+    @Override
+    public RootResult findRoots(double[] coefficients, SolverOptions options) {
+        int n = coefficients.length - 1;
+        // 1-based like the algorithms it comes from; row and column 0 are unused
+        double[][] a = new double[n + 1][n + 1];
+        for (int j = 1; j <= n; j++) {
+            a[1][j] = -coefficients[j] / coefficients[0];
+            if (!Double.isFinite(a[1][j])) {
+                // The coefficients span more than a double can hold relative to the leading one; QR
+                // on an infinite entry never settles, so report the breakdown with no roots
+                return new RootResult(getName(), new Complex[0], 0, false, Double.POSITIVE_INFINITY);
+            }
+        }
+        for (int i = 2; i <= n; i++) {
+            a[i][i - 1] = 1;
+        }
+
+        balance(a, n);
+        double[] wr = new double[n + 1];
+        double[] wi = new double[n + 1];
+        int[] iterations = new int[1];
+        boolean converged = hqr(a, n, wr, wi, iterations);
+
+        Complex[] roots = new Complex[n];
+        for (int i = 0; i < n; i++) {
+            roots[i] = new Complex(wr[i + 1], wi[i + 1]);
+        }
+        return new RootResult(getName(), roots, iterations[0], converged,
+                Polynomials.maxRelativeResidual(coefficients, roots));
+    }
+
+    private static void balance(double[][] a, int n) {
+        double sqrdx = RADIX * RADIX;
+        boolean done = false;
+        while (!done) {
+            done = true;
+            for (int i = 1; i <= n; i++) {
+                double r = 0;
+                double c = 0;
+                for (int j = 1; j <= n; j++) {
+                    if (j != i) {
+                        c += Math.abs(a[j][i]);
+                        r += Math.abs(a[i][j]);
+                    }
+                }
+                if (c != 0 && r != 0) {
+                    double g = r / RADIX;
+                    double f = 1;
+                    double s = c + r;
+                    while (c < g) {
+                        f *= RADIX;
+                        c *= sqrdx;
+                    }
+                    g = r * RADIX;
+                    while (c > g) {
+                        f /= RADIX;
+                        c /= sqrdx;
+                    }
+                    if ((c + r) / f < 0.95 * s) {
+                        done = false;
+                        g = 1 / f;
+                        for (int j = 1; j <= n; j++) {
+                            a[i][j] *= g;
+                        }
+                        for (int j = 1; j <= n; j++) {
+                            a[j][i] *= f;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Francis double-shift QR on an upper Hessenberg matrix, destroying it. Eigenvalues land in
+     * wr/wi[1..n]. Returns false if some eigenvalue needed too many iterations; the ones not found
+     * yet are then left as the current diagonal, which is usually still a fair estimate.
+     */
+    private static boolean hqr(double[][] a, int n, double[] wr, double[] wi, int[] totalIterations) {
+        double anorm = 0;
+        for (int i = 1; i <= n; i++) {
+            for (int j = Math.max(i - 1, 1); j <= n; j++) {
+                anorm += Math.abs(a[i][j]);
+            }
+        }
+
+        int nn = n;
+        double t = 0;
+        double p = 0;
+        double q = 0;
+        double r = 0;
+        double x;
+        double y;
+        double z;
+        double w;
+        double s;
+        while (nn >= 1) {
+            int its = 0;
+            int l;
+            do {
+                // Look for a single small subdiagonal element to split the matrix
+                for (l = nn; l >= 2; l--) {
+                    s = Math.abs(a[l - 1][l - 1]) + Math.abs(a[l][l]);
+                    if (s == 0) {
+                        s = anorm;
+                    }
+                    if (Math.abs(a[l][l - 1]) + s == s) {
+                        a[l][l - 1] = 0;
+                        break;
+                    }
+                }
+                x = a[nn][nn];
+                if (l == nn) {
+                    // One root found
+                    wr[nn] = x + t;
+                    wi[nn--] = 0;
+                } else {
+                    y = a[nn - 1][nn - 1];
+                    w = a[nn][nn - 1] * a[nn - 1][nn];
+                    if (l == nn - 1) {
+                        // Two roots found, from the trailing 2x2 block
+                        p = 0.5 * (y - x);
+                        q = p * p + w;
+                        z = Math.sqrt(Math.abs(q));
+                        x += t;
+                        if (q >= 0) {
+                            z = p + Math.copySign(z, p);
+                            wr[nn - 1] = wr[nn] = x + z;
+                            if (z != 0) {
+                                wr[nn] = x - w / z;
+                            }
+                            wi[nn - 1] = wi[nn] = 0;
+                        } else {
+                            wr[nn - 1] = wr[nn] = x + p;
+                            wi[nn - 1] = -(wi[nn] = z);
+                        }
+                        nn -= 2;
+                    } else {
+                        if (its == ITERATIONS_PER_ROOT) {
+                            for (int i = 1; i <= nn; i++) {
+                                wr[i] = a[i][i] + t;
+                                wi[i] = 0;
+                            }
+                            return false;
+                        }
+                        if (its == 10 || its == 20) {
+                            // Exceptional shift
+                            t += x;
+                            for (int i = 1; i <= nn; i++) {
+                                a[i][i] -= x;
+                            }
+                            s = Math.abs(a[nn][nn - 1]) + Math.abs(a[nn - 1][nn - 2]);
+                            y = x = 0.75 * s;
+                            w = -0.4375 * s * s;
+                        }
+                        ++its;
+                        totalIterations[0]++;
+
+                        // Form the shift and look for two consecutive small subdiagonal elements
+                        int m;
+                        for (m = nn - 2; m >= l; m--) {
+                            z = a[m][m];
+                            r = x - z;
+                            s = y - z;
+                            p = (r * s - w) / a[m + 1][m] + a[m][m + 1];
+                            q = a[m + 1][m + 1] - z - r - s;
+                            r = a[m + 2][m + 1];
+                            s = Math.abs(p) + Math.abs(q) + Math.abs(r);
+                            p /= s;
+                            q /= s;
+                            r /= s;
+                            if (m == l) {
+                                break;
+                            }
+                            double u = Math.abs(a[m][m - 1]) * (Math.abs(q) + Math.abs(r));
+                            double v = Math.abs(p) * (Math.abs(a[m - 1][m - 1]) + Math.abs(z) + Math.abs(a[m + 1][m + 1]));
+                            if (u + v == v) {
+                                break;
+                            }
+                        }
+                        for (int i = m + 2; i <= nn; i++) {
+                            a[i][i - 2] = 0;
+                            if (i != m + 2) {
+                                a[i][i - 3] = 0;
+                            }
+                        }
+
+                        // Double QR step on rows l..nn and columns m..nn
+                        for (int k = m; k <= nn - 1; k++) {
+                            if (k != m) {
+                                p = a[k][k - 1];
+                                q = a[k + 1][k - 1];
+                                r = 0;
+                                if (k != nn - 1) {
+                                    r = a[k + 2][k - 1];
+                                }
+                                if ((x = Math.abs(p) + Math.abs(q) + Math.abs(r)) != 0) {
+                                    p /= x;
+                                    q /= x;
+                                    r /= x;
+                                }
+                            }
+                            if ((s = Math.copySign(Math.sqrt(p * p + q * q + r * r), p)) != 0) {
+                                if (k == m) {
+                                    if (l != m) {
+                                        a[k][k - 1] = -a[k][k - 1];
+                                    }
+                                } else {
+                                    a[k][k - 1] = -s * x;
+                                }
+                                p += s;
+                                x = p / s;
+                                y = q / s;
+                                z = r / s;
+                                q /= p;
+                                r /= p;
+                                for (int j = k; j <= nn; j++) {
+                                    p = a[k][j] + q * a[k + 1][j];
+                                    if (k != nn - 1) {
+                                        p += r * a[k + 2][j];
+                                        a[k + 2][j] -= p * z;
+                                    }
+                                    a[k + 1][j] -= p * y;
+                                    a[k][j] -= p * x;
+                                }
+                                int mmin = Math.min(nn, k + 3);
+                                for (int i = l; i <= mmin; i++) {
+                                    p = x * a[i][k] + y * a[i][k + 1];
+                                    if (k != nn - 1) {
+                                        p += z * a[i][k + 2];
+                                        a[i][k + 2] -= p * r;
+                                    }
+                                    a[i][k + 1] -= p * q;
+                                    a[i][k] -= p;
+                                }
+                            }
+                        }
+                    }
+                }
+            } while (l < nn - 1);
+        }
+        return true;
+    }
+}
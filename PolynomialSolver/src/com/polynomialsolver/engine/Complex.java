@@ -0,0 +1,81 @@
+package com.polynomialsolver.engine;
+
+import java.util.Locale;
+
+/**
+ * Immutable complex number used for polynomial roots.
+ */
+public record Complex(double re, double im) {
+    public static final Complex ZERO = new Complex(0, 0);
+    public static final Complex ONE = new Complex(1, 0);
+
+    public static Complex real(double re) {
+        return new Complex(re, 0);
+    }
+
+    public static Complex polar(double modulus, double angle) {
+        return new Complex(modulus * Math.cos(angle), modulus * Math.sin(angle));
+    }
+
+    public Complex plus(Complex o) {
+        return new Complex(re + o.re, im + o.im);
+    }
+
+    public Complex minus(Complex o) {
+        return new Complex(re - o.re, im - o.im);
+    }
+
+    public Complex times(Complex o) {
+        return new Complex(re * o.re - im * o.im, re * o.im + im * o.re);
+    }
+
+    public Complex times(double factor) {
+        return new Complex(re * factor, im * factor);
+    }
+
+    // Smith's algorithm: avoids overflow in the denominator for large or unbalanced operands
+    public Complex dividedBy(Complex o) {
+        if (Math.abs(o.re) >= Math.abs(o.im)) {
+            double ratio = o.im / o.re;
+            double denom = o.re + o.im * ratio;
+            return new Complex((re + im * ratio) / denom, (im - re * ratio) / denom);
+        }
+        double ratio = o.re / o.im;
+        double denom = o.re * ratio + o.im;
+        return new Complex((re * ratio + im) / denom, (im * ratio - re) / denom);
+    }
+
+    public Complex reciprocal() {
+        return ONE.dividedBy(this);
+    }
+
+    public Complex conjugate() {
+        return new Complex(re, -im);
+    }
+
+    public double abs() {
+        return Math.hypot(re, im);
+    }
+
+    public boolean isReal() {
+        return im == 0;
+    }
+
+    @Override
+    public String toString() {
+        return format(6);
+    }
+
+    public String format(int decimals) {
+        String pattern = "%." + decimals + "f";
+        String real = String.format(Locale.ROOT, pattern, re);
+        if (real.matches("-0\\.?0*")) {
+            // Don't print "-0.000" for values that round to zero
+            real = real.substring(1);
+        }
+        if (im == 0) {
+            return real;
+        }
+        return real + String.format(Locale.ROOT, " %s " + pattern + "i", im < 0 ? "-" : "+", Math.abs(im));
+    }
+}
@@ -0,0 +1,101 @@
+package com.polynomialsolver.engine;
+
+/**
+ * Durand–Kerner (Weierstrass) iteration: every root estimate moves by p(z_i) / (a0 prod_{j != i} (z_i - z_j)).
+ *
+ * Sequential updates are applied in place (Gauss–Seidel style), so later roots in a sweep already
+ * see the corrected earlier ones, and roots stop moving individually once they meet the tolerance.
+ * Convergence is quadratic for simple roots. Outside the unit circle the correction is formed
+ * from the reversed polynomial, and the product is kept with a separate binary exponent, so
+ * high degrees neither overflow nor underflow.
+ *
+ * Parallel mode does not apply. Without in-place updates the estimates keep overshooting each
+ * other: at degree 1000 and up, Jacobi sweeps usually hit the iteration cap still far from the
+ * roots, so this method always sweeps sequentially.
+ */
+public final class DurandKerner extends SimultaneousIteration {
+
+    @Override
+    public String getName() {
+        return "Durand-Kerner";
+    }
+
+    @Override
+    boolean sweepsInParallel() {
+        return false;
+    }
+
+    @Override
+    boolean correction(double[] coefficients, double[] re, double[] im, int i, double[] out) {
+        weierstrassCorrection(coefficients, re, im, i, out);
+        return Double.isFinite(out[0]) && Double.isFinite(out[1]);
+    }
+
+    private static void weierstrassCorrection(double[] coefficients, double[] re, double[] im, int i, double[] out) {
+        int degree = coefficients.length - 1;
+        double zRe = re[i];
+        double zIm = im[i];
+        boolean outside = Math.hypot(zRe, zIm) > 1;
+
+        // Inside: p(z) / prod (z - z_j).  Outside: z q(1/z) / prod (1 - z_j / z), the same ratio divided by z^(n-1)
+        double numRe;
+        double numIm;
+        double wRe = 0;
+        double wIm = 0;
+        if (outside) {
+            Polynomials.divide(1, 0, zRe, zIm, out);
+            wRe = out[0];
+            wIm = out[1];
+            double qRe = coefficients[degree];
+            double qIm = 0;
+            for (int k = degree - 1; k >= 0; k--) {
+                double nextQRe = qRe * wRe - qIm * wIm + coefficients[k];
+                qIm = qRe * wIm + qIm * wRe;
+                qRe = nextQRe;
+            }
+            numRe = zRe * qRe - zIm * qIm;
+            numIm = zRe * qIm + zIm * qRe;
+        } else {
+            double pRe = coefficients[0];
+            double pIm = 0;
+            for (int k = 1; k <= degree; k++) {
+                double nextPRe = pRe * zRe - pIm * zIm + coefficients[k];
+                pIm = pRe * zIm + pIm * zRe;
+                pRe = nextPRe;
+            }
+            numRe = pRe;
+            numIm = pIm;
+        }
+
+        double prodRe = coefficients[0];
+        double prodIm = 0;
+        int exponent = 0;
+        for (int j = 0; j < degree; j++) {
+            if (j == i) {
+                continue;
+            }
+            double factorRe;
+            double factorIm;
+            if (outside) {
+                factorRe = 1 - (re[j] * wRe - im[j] * wIm);
+                factorIm = -(re[j] * wIm + im[j] * wRe);
+            } else {
+                factorRe = zRe - re[j];
+                factorIm = zIm - im[j];
+            }
+            double nextProdRe = prodRe * factorRe - prodIm * factorIm;
+            prodIm = prodRe * factorIm + prodIm * factorRe;
+            prodRe = nextProdRe;
+            double magnitude = Math.max(Math.abs(prodRe), Math.abs(prodIm));
+            if (magnitude > 0x1p500 || (magnitude < 0x1p-500 && magnitude > 0)) {
+                int shift = Math.getExponent(magnitude);
+                prodRe = Math.scalb(prodRe, -shift);
+                prodIm = Math.scalb(prodIm, -shift);
+                exponent += shift;
+            }
+        }
+        Polynomials.divide(numRe, numIm, prodRe, prodIm, out);
+        out[0] = Math.scalb(out[0], -exponent);
+        out[1] = Math.scalb(out[1], -exponent);
+    }
+}
@@ -0,0 +1,488 @@
+package com.polynomialsolver.engine;
+
+import java.util.Arrays;
+
+/**
+ * Jenkins–Traub three-stage method for complex polynomials (after the CPOLY algorithm, ACM TOMS 419).
+ *
+ * Roots are found one at a time, smallest modulus first, and divided out of the polynomial. For
+ * each root, stage 1 runs a few unshifted H-polynomial steps to bring out the small roots, stage 2
+ * uses a fixed shift on the Cauchy lower bound circle until the shifted estimates settle, and
+ * stage 3 switches to variable shifts, which converge faster than quadratically. A root is
+ * accepted once |p(s)| is within the rounding error bound of its evaluation, or its step drops
+ * below the tolerance. If a shift fails, the next one is rotated by 94 degrees, for up to two
+ * passes of nine shifts.
+ *
+ * Deflation is the weak point at high degree: the quotients drift away from the original
+ * polynomial and the later roots lose accuracy. Roots inside the unit circle are divided out
+ * forward and the others backward, which keeps each division stable. Each root is also
+ * Newton-polished against the original coefficients before it is divided out, with the roots
+ * already found removed implicitly (Maehly's correction) so the step cannot slide onto one of them.
+ * That is enough up to a degree of about a hundred; past it some estimates only get close, so a
+ * final pass repeats the same correction for every root against all the others until each one
+ * converges. At a degree of a few hundred and up, Aberth–Ehrlich gets there much faster.
+ *
+ * {@code maxIterations} caps the H-polynomial steps spent on any one root and the final refinement
+ * sweeps; the reported iterations count both. A root that runs out of steps keeps its best
+ * estimate for the refinement. If the search breaks down completely (a non-finite estimate or
+ * deflated coefficient), it stops there and returns only the roots found so far, with
+ * {@code converged == false}.
+ */
+public final class JenkinsTraub implements RootFinder {
+    private static final double ARE = Polynomials.EPSILON;
+    private static final double MRE = 2 * Math.sqrt(2) * Polynomials.EPSILON;
+    private static final double COS_94 = Math.cos(Math.toRadians(94));
+    private static final double SIN_94 = Math.sin(Math.toRadians(94));
+    private static final int NO_SHIFT_STEPS = 5;
+    private static final int SHIFTS_PER_PASS = 9;
+    private static final int VARIABLE_SHIFT_STEPS = 10;
+    private static final int POLISH_STEPS = 10;
+
+    @Override
+    public String getName() {
+        return "Jenkins-Traub";
+    }
+
+    @Override
+    public RootResult findRoots(double[] coefficients, SolverOptions options) {
+        int degree = coefficients.length - 1;
+        Complex[] p = new Complex[degree + 1];
+        for (int i = 0; i <= degree; i++) {
+            p[i] = Complex.real(coefficients[i] / coefficients[0]);
+        }
+
+        Search search = new Search(options.getTolerance(), options.getMaxIterations());
+        Complex[] roots = new Complex[degree];
+        int found = 0;
+        while (found < degree) {
+            Complex estimate = p.length > 2 ? search.findRoot(p) : p[1].times(-1).dividedBy(p[0]);
+            if (!isFinite(estimate)) {
+                break;
+            }
+            roots[found] = polish(coefficients, roots, found, estimate);
+            found++;
+            if (found < degree) {
+                // Divide out the estimate itself: it is a root of p, the polished one need not be
+                p = deflate(p, estimate);
+                if (!isFinite(p)) {
+                    break;
+                }
+            }
+        }
+        if (found < degree) {
+            roots = Arrays.copyOf(roots, found);
+            return new RootResult(getName(), roots, search.iterations, false,
+                    Polynomials.maxRelativeResidual(coefficients, roots));
+        }
+
+        Refinement refinement = refine(coefficients, roots, options);
+        return new RootResult(getName(), roots, search.iterations + refinement.sweeps, refinement.converged,
+                Polynomials.maxRelativeResidual(coefficients, roots));
+    }
+
+    /**
+     * Newton steps on the original polynomial with the first {@code count} roots divided out
+     * implicitly. Each step is kept only if it lowers the backward error.
+     */
+    private static Complex polish(double[] coefficients, Complex[] roots, int count, Complex root) {
+        double[] correction = new double[2];
+        double residual = Polynomials.relativeResidual(coefficients, root.re(), root.im());
+        for (int step = 0; step < POLISH_STEPS && residual > 0; step++) {
+            maehlyCorrection(coefficients, roots, count, -1, root, correction);
+            double candidateRe = root.re() - correction[0];
+            double candidateIm = root.im() - correction[1];
+            double candidateResidual = Polynomials.relativeResidual(coefficients, candidateRe, candidateIm);
+            if (!(candidateResidual < residual)) {
+                break;
+            }
+            root = new Complex(candidateRe, candidateIm);
+            residual = candidateResidual;
+        }
+        return root;
+    }
+
+    // Gauss–Seidel sweeps of the same correction over all roots, each against all the others
+    private static Refinement refine(double[] coefficients, Complex[] roots, SolverOptions options) {
+        double[] correction = new double[2];
+        boolean[] done = new boolean[roots.length];
+        int remaining = roots.length;
+        int sweeps = 0;
+        while (remaining > 0 && sweeps < options.getMaxIterations()) {
+            sweeps++;
+            for (int i = 0; i < roots.length; i++) {
+                if (done[i]) {
+                    continue;
+                }
+                Complex z = roots[i];
+                maehlyCorrection(coefficients, roots, roots.length, i, z, correction);
+                if (!Double.isFinite(correction[0]) || !Double.isFinite(correction[1])) {
+                    continue;
+                }
+                double re = z.re() - correction[0];
+                double im = z.im() - correction[1];
+                roots[i] = new Complex(re, im);
+                if (Polynomials.isConverged(coefficients, re, im, Math.hypot(correction[0], correction[1]),
+                        options.getTolerance())) {
+                    done[i] = true;
+                    remaining--;
+                }
+            }
+        }
+        return new Refinement(sweeps, remaining == 0);
+    }
+
+    /**
+     * N / (1 - N sum 1 / (z - r_j)) over the first {@code count} roots except {@code skip}, where
+     * N = p(z) / p'(z). It is computed as 1 / (1 / N - sum), since far inside the roots of a high
+     * degree polynomial p' underflows and N alone can be out of range.
+     */
+    private static void maehlyCorrection(double[] coefficients, Complex[] roots, int count, int skip, Complex z,
+                                         double[] out) {
+        Polynomials.newtonCorrection(coefficients, z.re(), z.im(), out);
+        if (out[0] == 0 && out[1] == 0) {
+            // p(z) is exactly zero
+            return;
+        }
+        double denomRe = 0;
+        double denomIm = 0;
+        if (Double.isFinite(out[0]) && Double.isFinite(out[1])) {
+            Polynomials.divide(1, 0, out[0], out[1], out);
+            denomRe = out[0];
+            denomIm = out[1];
+        }
+        for (int j = 0; j < count; j++) {
+            if (j != skip) {
+                Polynomials.divide(1, 0, z.re() - roots[j].re(), z.im() - roots[j].im(), out);
+                denomRe -= out[0];
+                denomIm -= out[1];
+            }
+        }
+        Polynomials.divide(1, 0, denomRe, denomIm, out);
+    }
+
+    private static boolean isFinite(Complex z) {
+        return z != null && Double.isFinite(z.re()) && Double.isFinite(z.im());
+    }
+
+    private static boolean isFinite(Complex[] p) {
+        for (Complex c : p) {
+            if (!isFinite(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Divides p by (z - root). Forward synthetic division from the leading coefficient for roots
+     * inside the unit circle, backward from the constant term for the rest, so the recurrence never
+     * multiplies the error by |root| > 1. The remainder is dropped; the result is monic.
+     */
+    private static Complex[] deflate(Complex[] p, Complex root) {
+        int n = p.length - 1;
+        Complex[] quotient = new Complex[n];
+        if (root.abs() <= 1) {
+            quotient[0] = p[0];
+            for (int i = 1; i < n; i++) {
+                quotient[i] = quotient[i - 1].times(root).plus(p[i]);
+            }
+            return quotient;
+        }
+        quotient[n - 1] = p[n].times(-1).dividedBy(root);
+        for (int i = n - 1; i >= 1; i--) {
+            quotient[i - 1] = quotient[i].minus(p[i]).dividedBy(root);
+        }
+        Complex lead = quotient[0];
+        for (int i = 0; i < n; i++) {
+            quotient[i] = quotient[i].dividedBy(lead);
+        }
+        return quotient;
+    }
+
+    private static final class Refinement {
+        final int sweeps;
+        final boolean converged;
+
+        Refinement(int sweeps, boolean converged) {
+            this.sweeps = sweeps;
+            this.converged = converged;
+        }
+    }
+
+    // Working state for one polynomial; p is monic of degree n, h has degree n - 1
+    private static final class Search {
+        private final double tolerance;
+        private final int maxIterations;
+        private int iterations;
+        private int rootIterations;
+
+        private Complex[] p;
+        private Complex[] h;
+        private Complex[] qp;
+        private Complex[] qh;
+        private int n;
+        private Complex s;
+        private Complex pv;
+        private Complex t;
+        private Complex lastEstimate;
+
+        Search(double tolerance, int maxIterations) {
+            this.tolerance = tolerance;
+            this.maxIterations = maxIterations;
+        }
+
+        // Counts one H-polynomial step; false once this root has used up its budget
+        private boolean step() {
+            if (rootIterations >= maxIterations) {
+                return false;
+            }
+            rootIterations++;
+            iterations++;
+            return true;
+        }
+
+        Complex findRoot(Complex[] polynomial) {
+            p = polynomial;
+            n = p.length - 1;
+            h = new Complex[n];
+            qp = new Complex[n + 1];
+            qh = new Complex[n];
+            rootIterations = 0;
+            lastEstimate = null;
+
+            double bound = cauchyLowerBound();
+            double xx = Math.sqrt(0.5);
+            double yy = -xx;
+            for (int pass = 0; pass < 2; pass++) {
+                noShift();
+                for (int shift = 1; shift <= SHIFTS_PER_PASS; shift++) {
+                    double rotated = COS_94 * xx - SIN_94 * yy;
+                    yy = SIN_94 * xx + COS_94 * yy;
+                    xx = rotated;
+                    s = new Complex(bound * xx, bound * yy);
+                    Complex root = fixedShift(10 * shift);
+                    if (root != null) {
+                        return root;
+                    }
+                    if (rootIterations >= maxIterations) {
+                        return lastEstimate;
+                    }
+                }
+            }
+            // Every shift failed; keep the best estimate so the other roots can still be found
+            return lastEstimate;
+        }
+
+        // Stage 1: H(z) <- (H(z) - H(0) / P(0) P(z)) / z, starting from P'(z) / n
+        private void noShift() {
+            for (int i = 0; i < n; i++) {
+                h[i] = p[i].times((double) (n - i) / n);
+            }
+            for (int step = 0; step < NO_SHIFT_STEPS; step++) {
+                if (!step()) {
+                    return;
+                }
+                if (h[n - 1].abs() > 10 * Polynomials.EPSILON * p[n - 1].abs()) {
+                    Complex ratio = p[n].times(-1).dividedBy(h[n - 1]);
+                    for (int j = n - 1; j >= 1; j--) {
+                        h[j] = ratio.times(h[j - 1]).plus(p[j]);
+                    }
+                    h[0] = p[0];
+                } else {
+                    // H(0) is negligible: just divide H by z
+                    for (int j = n - 1; j >= 1; j--) {
+                        h[j] = h[j - 1];
+                    }
+                    h[0] = Complex.ZERO;
+                }
+            }
+        }
+
+        // Stage 2; returns the root, or null if this shift did not lead to convergence
+        private Complex fixedShift(int steps) {
+            pv = evaluate(p, s, qp);
+            boolean test = true;
+            boolean passed = false;
+            boolean hNegligible = calculateT();
+            Complex z = s.plus(t);
+            lastEstimate = z;
+
+            for (int j = 1; j <= steps; j++) {
+                if (!step()) {
+                    return null;
+                }
+                Complex previousT = t;
+                nextH(hNegligible);
+                hNegligible = calculateT();
+                z = s.plus(t);
+                lastEstimate = z;
+
+                if (!hNegligible && test && j != steps) {
+                    if (t.minus(previousT).abs() < 0.5 * z.abs()) {
+                        if (passed) {
+                            // The weak convergence test held twice in a row; try stage 3 from z
+                            Complex[] savedH = h.clone();
+                            Complex savedS = s;
+                            Complex root = variableShift(z);
+                            if (root != null) {
+                                return root;
+                            }
+                            // Stage 3 failed: stop testing, restore H and carry on with the fixed shift
+                            test = false;
+                            h = savedH;
+                            s = savedS;
+                            pv = evaluate(p, s, qp);
+                            hNegligible = calculateT();
+                        } else {
+                            passed = true;
+                        }
+                    } else {
+                        passed = false;
+                    }
+                }
+            }
+            // One last attempt with the final H from stage 2
+            return variableShift(z);
+        }
+
+        // Stage 3; returns the root, or null if the iteration stopped converging
+        private Complex variableShift(Complex z) {
+            boolean perturbed = false;
+            double previousMagnitude = 0;
+            double relativeStep = Double.POSITIVE_INFINITY;
+            s = z;
+
+            for (int i = 1; i <= VARIABLE_SHIFT_STEPS; i++) {
+                if (!step()) {
+                    return null;
+                }
+                pv = evaluate(p, s, qp);
+                double magnitude = pv.abs();
+                if (!Double.isFinite(magnitude)) {
+                    // The step left the region where P can be evaluated; H is still intact
+                    return null;
+                }
+                double modulus = s.abs();
+                lastEstimate = s;
+                if (magnitude <= 20 * roundingErrorBound(modulus, magnitude) || relativeStep <= tolerance) {
+                    return s;
+                }
+
+                boolean skipToNext = false;
+                if (i != 1) {
+                    if (!perturbed && magnitude >= previousMagnitude && relativeStep < 0.05) {
+                        // Probably a cluster of roots: take a small perturbed step and rebuild H from there
+                        double tp = Math.max(relativeStep, Polynomials.EPSILON);
+                        perturbed = true;
+                        double r1 = Math.sqrt(tp);
+                        s = new Complex(s.re() * (r1 + 1) - s.im() * r1, s.re() * r1 + s.im() * (r1 + 1));
+                        pv = evaluate(p, s, qp);
+                        for (int j = 0; j < 5; j++) {
+                            nextH(calculateT());
+                        }
+                        previousMagnitude = Double.POSITIVE_INFINITY;
+                        skipToNext = true;
+                    } else if (magnitude * 0.1 > previousMagnitude) {
+                        // The value grew significantly: this shift is not converging
+                        return null;
+                    }
+                }
+                if (!skipToNext) {
+                    previousMagnitude = magnitude;
+                }
+
+                nextH(calculateT());
+                relativeStep = Double.POSITIVE_INFINITY;
+                if (!calculateT()) {
+                    relativeStep = t.abs() / s.abs();
+                    s = s.plus(t);
+                }
+            }
+            return null;
+        }
+
+        // t = -P(s) / H(s); returns true (and t = 0) when H(s) is negligible
+        private boolean calculateT() {
+            Complex hv = evaluate(h, s, qh);
+            boolean negligible = hv.abs() <= 10 * ARE * h[n - 1].abs();
+            t = negligible ? Complex.ZERO : pv.times(-1).dividedBy(hv);
+            return negligible;
+        }
+
+        // H(z) <- t * QH(z) + QP(z), i.e. (H(z) - H(s) / P(s) P(z)) / (z - s) scaled to be monic
+        private void nextH(boolean hNegligible) {
+            if (!hNegligible) {
+                for (int j = 1; j < n; j++) {
+                    h[j] = t.times(qh[j - 1]).plus(qp[j]);
+                }
+                h[0] = qp[0];
+            } else {
+                for (int j = 1; j < n; j++) {
+                    h[j] = qh[j - 1];
+                }
+                h[0] = Complex.ZERO;
+            }
+        }
+
+        // Bound on the rounding error in evaluating P at a point of modulus |s| (CPOLY's errev)
+        private double roundingErrorBound(double modulus, double magnitude) {
+            double e = qp[0].abs() * MRE / (ARE + MRE);
+            for (Complex q : qp) {
+                e = e * modulus + q.abs();
+            }
+            return e * (ARE + MRE) - magnitude * MRE;
+        }
+
+        // Positive root of |a0| x^n + ... + |a_{n-1}| x - |a_n|: no root of P is smaller in modulus
+        private double cauchyLowerBound() {
+            double[] moduli = new double[n + 1];
+            for (int i = 0; i <= n; i++) {
+                moduli[i] = p[i].abs();
+            }
+            moduli[n] = -moduli[n];
+
+            double x = Math.exp((Math.log(-moduli[n]) - Math.log(moduli[0])) / n);
+            if (moduli[n - 1] != 0) {
+                // A Newton step at the origin is a better upper estimate when it is smaller
+                x = Math.min(x, -moduli[n] / moduli[n - 1]);
+            }
+            while (true) {
+                double xm = x * 0.1;
+                double f = moduli[0];
+                for (int i = 1; i <= n; i++) {
+                    f = f * xm + moduli[i];
+                }
+                if (!(f > 0)) {
+                    break;
+                }
+                x = xm;
+            }
+
+            double dx = x;
+            double[] q = new double[n + 1];
+            while (Math.abs(dx / x) > 0.005) {
+                q[0] = moduli[0];
+                for (int i = 1; i <= n; i++) {
+                    q[i] = q[i - 1] * x + moduli[i];
+                }
+                double f = q[n];
+                double df = q[0];
+                for (int i = 1; i < n; i++) {
+                    df = df * x + q[i];
+                }
+                dx = f / df;
+                x -= dx;
+            }
+            return x;
+        }
+
+        // Horner evaluation that also leaves the quotient by (z - s) in quotient
+        private static Complex evaluate(Complex[] coefficients, Complex s, Complex[] quotient) {
+            quotient[0] = coefficients[0];
+            for (int i = 1; i < coefficients.length; i++) {
+                quotient[i] = quotient[i - 1].times(s).plus(coefficients[i]);
+            }
+            return quotient[coefficients.length - 1];
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.polynomialsolver.engine;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Entry point for finding all complex roots of a real polynomial of any degree.
+ *
+ * Coefficients are given highest degree first, as in the server protocol: {1, -6, 11, -6} is
+ * x^3 - 6x^2 + 11x - 6. Leading zeros are dropped and roots at zero are split off exactly; degrees
+ * one and two use closed forms, anything higher goes to a {@link RootFinder} (Aberth–Ehrlich unless
+ * another one is asked for). Roots are then Newton-polished against the original polynomial,
+ * imaginary parts that are only rounding noise are cleared, conjugate pairs are made exactly
+ * symmetric, and the roots are sorted by real part with each pair listed as +i before -i. The
+ * result only counts as converged if the worst backward error is below sqrt(machine epsilon).
+ */
+public final class PolynomialSolver {
+    public static final String CLOSED_FORM = "closed form";
+
+    private static final int POLISH_STEPS = 3;
+    private static final double SNAP_IMAGINARY = 1e-6;
+
+    private static final Comparator<Complex> ROOT_ORDER = Comparator.comparingDouble(Complex::re)
+            .thenComparing(Comparator.comparingDouble(Complex::im).reversed());
+
+    private PolynomialSolver() {
+    }
+
+    public static RootResult solve(double[] coefficients) {
+        return solve(coefficients, SolverOptions.DEFAULT);
+    }
+
+    public static RootResult solve(double[] coefficients, SolverOptions options) {
+        return solve(coefficients, Algorithm.ABERTH_EHRLICH.finder(), options);
+    }
+
+    public static RootResult solve(double[] coefficients, Algorithm algorithm) {
+        return solve(coefficients, algorithm.finder(), SolverOptions.DEFAULT);
+    }
+
+    public static RootResult solve(double[] coefficients, RootFinder finder, SolverOptions options) {
+        if (coefficients == null || coefficients.length == 0) {
+            throw new IllegalArgumentException("At least one coefficient is required");
+        }
+        for (double c : coefficients) {
+            if (!Double.isFinite(c)) {
+                throw new IllegalArgumentException("Coefficients must be finite numbers");
+            }
+        }
+
+        int first = 0;
+        while (first < coefficients.length && coefficients[first] == 0) {
+            first++;
+        }
+        if (first == coefficients.length) {
+            throw new IllegalArgumentException("All coefficients are zero: every number is a root");
+        }
+        int last = coefficients.length - 1;
+        while (coefficients[last] == 0) {
+            last--;
+        }
+        int zeroRoots = coefficients.length - 1 - last;
+        double[] reduced = Arrays.copyOfRange(coefficients, first, last + 1);
+        int degree = reduced.length - 1;
+
+        RootResult found;
+        if (degree == 0) {
+            found = new RootResult(CLOSED_FORM, new Complex[0], 0, true, 0);
+        } else if (degree <= 2) {
+            found = new RootResult(CLOSED_FORM, closedForm(reduced), 0, true, 0);
+        } else {
+            found = finder.findRoots(reduced, options);
+        }
+
+        // A finder that broke down may return fewer roots than the degree
+        Complex[] nonZero = found.getRoots();
+        for (int i = 0; i < nonZero.length; i++) {
+            Complex root = options.isPolish() && degree > 2 ? Polynomials.polish(reduced, nonZero[i], POLISH_STEPS) : nonZero[i];
+            nonZero[i] = snapToReal(reduced, root);
+        }
+        pairConjugates(nonZero);
+        double maxResidual = Polynomials.maxRelativeResidual(reduced, nonZero);
+        // A finder that stopped on its own criteria can still be off; the backward error has the last word
+        boolean converged = found.isConverged() && nonZero.length == degree && maxResidual <= Polynomials.SQRT_EPSILON;
+
+        Complex[] roots = Arrays.copyOf(nonZero, nonZero.length + zeroRoots);
+        Arrays.fill(roots, nonZero.length, roots.length, Complex.ZERO);
+        Arrays.sort(roots, ROOT_ORDER);
+        return new RootResult(found.getAlgorithm(), roots, found.getIterations(), converged, maxResidual);
+    }
+
+    // Linear and quadratic, scaled against overflow and without cancellation in the quadratic formula
+    private static Complex[] closedForm(double[] c) {
+        if (c.length == 2) {
+            return new Complex[]{Complex.real(-c[1] / c[0])};
+        }
+        double scale = Math.max(Math.abs(c[0]), Math.max(Math.abs(c[1]), Math.abs(c[2])));
+        double a = c[0] / scale;
+        double b = c[1] / scale;
+        double k = c[2] / scale;
+        double discriminant = b * b - 4 * a * k;
+        if (discriminant >= 0) {
+            double q = -0.5 * (b + Math.copySign(Math.sqrt(discriminant), b));
+            return new Complex[]{Complex.real(q / a), Complex.real(k / q)};
+        }
+        double re = -b / (2 * a);
+        double im = Math.abs(Math.sqrt(-discriminant) / (2 * a));
+        return new Complex[]{new Complex(re, im), new Complex(re, -im)};
+    }
+
+    // Complex roots of a real polynomial come in conjugate pairs; make each pair exactly symmetric
+    private static void pairConjugates(Complex[] roots) {
+        boolean[] paired = new boolean[roots.length];
+        for (int i = 0; i < roots.length; i++) {
+            if (paired[i] || roots[i].im() <= 0) {
+                continue;
+            }
+            Complex conjugate = roots[i].conjugate();
+            int best = -1;
+            double bestDistance = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < roots.length; j++) {
+                if (!paired[j] && roots[j].im() < 0) {
+                    double distance = roots[j].minus(conjugate).abs();
+                    if (distance < bestDistance) {
+                        best = j;
+                        bestDistance = distance;
+                    }
+                }
+            }
+            if (best >= 0 && bestDistance <= SNAP_IMAGINARY * roots[i].abs()) {
+                double re = (roots[i].re() + roots[best].re()) / 2;
+                double im = (roots[i].im() - roots[best].im()) / 2;
+                roots[i] = new Complex(re, im);
+                roots[best] = new Complex(re, -im);
+                paired[i] = true;
+                paired[best] = true;
+            }
+        }
+    }
+
+    // Real roots come back with tiny imaginary parts; drop them when the real point is at least as good
+    private static Complex snapToReal(double[] coefficients, Complex root) {
+        if (root.im() == 0 || Math.abs(root.im()) > SNAP_IMAGINARY * root.abs()) {
+            return root;
+        }
+        Complex real = Complex.real(root.re());
+        double realResidual = Polynomials.relativeResidual(coefficients, real);
+        double residual = Polynomials.relativeResidual(coefficients, root);
+        return realResidual <= Math.max(residual, 4 * Polynomials.EPSILON) ? real : root;
+    }
+}
@@ -0,0 +1,223 @@
+package com.polynomialsolver.engine;
+
+/**
+ * Horner evaluation and the helpers the root finders share. Coefficients are highest degree first.
+ *
+ * The package-private overloads take a point as separate re/im doubles and write complex results
+ * into a caller-owned {@code double[2]}, so the iteration kernels run without allocating.
+ */
+public final class Polynomials {
+    static final double EPSILON = Math.ulp(1.0);
+    static final double SQRT_EPSILON = Math.sqrt(EPSILON);
+
+    private Polynomials() {
+    }
+
+    public static Complex evaluate(double[] coefficients, Complex z) {
+        double re = coefficients[0];
+        double im = 0;
+        for (int i = 1; i < coefficients.length; i++) {
+            double nextRe = re * z.re() - im * z.im() + coefficients[i];
+            im = re * z.im() + im * z.re();
+            re = nextRe;
+        }
+        return new Complex(re, im);
+    }
+
+    /**
+     * p(z) / p'(z). Outside the unit circle this is computed from the reversed polynomial
+     * q(w) = w^n p(1/w) as z q / (n q - w q'), so neither value overflows at high degree.
+     */
+    public static Complex newtonCorrection(double[] coefficients, Complex z) {
+        double[] out = new double[2];
+        newtonCorrection(coefficients, z.re(), z.im(), out);
+        return new Complex(out[0], out[1]);
+    }
+
+    static void newtonCorrection(double[] coefficients, double zRe, double zIm, double[] out) {
+        int degree = coefficients.length - 1;
+        if (Math.hypot(zRe, zIm) <= 1) {
+            double pRe = coefficients[0];
+            double pIm = 0;
+            double dRe = 0;
+            double dIm = 0;
+            for (int i = 1; i <= degree; i++) {
+                double nextDRe = dRe * zRe - dIm * zIm + pRe;
+                dIm = dRe * zIm + dIm * zRe + pIm;
+                dRe = nextDRe;
+                double nextPRe = pRe * zRe - pIm * zIm + coefficients[i];
+                pIm = pRe * zIm + pIm * zRe;
+                pRe = nextPRe;
+            }
+            divide(pRe, pIm, dRe, dIm, out);
+            return;
+        }
+
+        divide(1, 0, zRe, zIm, out);
+        double wRe = out[0];
+        double wIm = out[1];
+        double qRe = coefficients[degree];
+        double qIm = 0;
+        double dRe = 0;
+        double dIm = 0;
+        for (int i = degree - 1; i >= 0; i--) {
+            double nextDRe = dRe * wRe - dIm * wIm + qRe;
+            dIm = dRe * wIm + dIm * wRe + qIm;
+            dRe = nextDRe;
+            double nextQRe = qRe * wRe - qIm * wIm + coefficients[i];
+            qIm = qRe * wIm + qIm * wRe;
+            qRe = nextQRe;
+        }
+        double numRe = zRe * qRe - zIm * qIm;
+        double numIm = zRe * qIm + zIm * qRe;
+        double denRe = degree * qRe - (wRe * dRe - wIm * dIm);
+        double denIm = degree * qIm - (wRe * dIm + wIm * dRe);
+        divide(numRe, numIm, denRe, denIm, out);
+    }
+
+    // (aRe + i aIm) / (bRe + i bIm) by Smith's algorithm, which avoids overflow in |b|^2
+    static void divide(double aRe, double aIm, double bRe, double bIm, double[] out) {
+        if (Math.abs(bRe) >= Math.abs(bIm)) {
+            double ratio = bIm / bRe;
+            double denom = bRe + bIm * ratio;
+            out[0] = (aRe + aIm * ratio) / denom;
+            out[1] = (aIm - aRe * ratio) / denom;
+        } else {
+            double ratio = bRe / bIm;
+            double denom = bRe * ratio + bIm;
+            out[0] = (aRe * ratio + aIm) / denom;
+            out[1] = (aIm * ratio - aRe) / denom;
+        }
+    }
+
+    // sum(|a_k| |z|^k): the scale of the rounding error when evaluating p at a point of modulus |z|
+    public static double magnitudeBound(double[] coefficients, double modulus) {
+        double bound = Math.abs(coefficients[0]);
+        for (int i = 1; i < coefficients.length; i++) {
+            bound = bound * modulus + Math.abs(coefficients[i]);
+        }
+        return bound;
+    }
+
+    /**
+     * Backward error |p(z)| / sum(|a_k| |z|^k); around EPSILON means z is a root to working precision.
+     * Outside the unit circle numerator and denominator are both divided by |z|^n (evaluated on the
+     * reversed polynomial) so the ratio stays finite at any degree.
+     */
+    public static double relativeResidual(double[] coefficients, Complex z) {
+        return relativeResidual(coefficients, z.re(), z.im());
+    }
+
+    static double relativeResidual(double[] coefficients, double zRe, double zIm) {
+        int degree = coefficients.length - 1;
+        double modulus = Math.hypot(zRe, zIm);
+        if (modulus <= 1) {
+            double pRe = coefficients[0];
+            double pIm = 0;
+            double bound = Math.abs(coefficients[0]);
+            for (int i = 1; i <= degree; i++) {
+                double nextPRe = pRe * zRe - pIm * zIm + coefficients[i];
+                pIm = pRe * zIm + pIm * zRe;
+                pRe = nextPRe;
+                bound = bound * modulus + Math.abs(coefficients[i]);
+            }
+            return bound == 0 ? 0 : Math.hypot(pRe, pIm) / bound;
+        }
+
+        // 1/z = conj(z) / |z|^2, written out so that nothing is allocated
+        double wModulus = 1 / modulus;
+        double wRe = zRe / modulus * wModulus;
+        double wIm = -zIm / modulus * wModulus;
+        double qRe = coefficients[degree];
+        double qIm = 0;
+        double bound = Math.abs(coefficients[degree]);
+        for (int i = degree - 1; i >= 0; i--) {
+            double nextQRe = qRe * wRe - qIm * wIm + coefficients[i];
+            qIm = qRe * wIm + qIm * wRe;
+            qRe = nextQRe;
+            bound = bound * wModulus + Math.abs(coefficients[i]);
+        }
+        return Math.hypot(qRe, qIm) / bound;
+    }
+
+    public static double maxRelativeResidual(double[] coefficients, Complex[] roots) {
+        double max = 0;
+        for (Complex root : roots) {
+            max = Math.max(max, relativeResidual(coefficients, root));
+        }
+        return max;
+    }
+
+    /**
+     * Starting points for the simultaneous iterations: a circle around the centroid of the roots
+     * (-a1 / (n a0)) whose radius is the geometric mean of the roots' distances from it, which is
+     * |p(centroid) / a0|^(1/n). The angular offset keeps the points off the real axis so that
+     * conjugate pairs can separate.
+     */
+    static void initialGuesses(double[] coefficients, double[] re, double[] im) {
+        int degree = coefficients.length - 1;
+        double center = -coefficients[1] / (degree * coefficients[0]);
+        double radius = Math.exp((logAbsValue(coefficients, Complex.real(center)) - Math.log(Math.abs(coefficients[0]))) / degree);
+        if (!(radius > 0) || Double.isInfinite(radius)) {
+            radius = 1;
+        }
+        for (int k = 0; k < degree; k++) {
+            double angle = 2 * Math.PI * k / degree + 0.4;
+            re[k] = center + radius * Math.cos(angle);
+            im[k] = radius * Math.sin(angle);
+        }
+    }
+
+    // log|p(z)| by Horner with a running binary exponent, so it stays finite where p(z) itself would overflow
+    static double logAbsValue(double[] coefficients, Complex z) {
+        double re = coefficients[0];
+        double im = 0;
+        int exponent = 0;
+        for (int i = 1; i < coefficients.length; i++) {
+            double nextRe = re * z.re() - im * z.im() + Math.scalb(coefficients[i], -exponent);
+            im = re * z.im() + im * z.re();
+            re = nextRe;
+            double magnitude = Math.max(Math.abs(re), Math.abs(im));
+            if (magnitude > 0x1p500 || (magnitude < 0x1p-500 && magnitude > 0)) {
+                int shift = Math.getExponent(magnitude);
+                re = Math.scalb(re, -shift);
+                im = Math.scalb(im, -shift);
+                exponent += shift;
+            }
+        }
+        return Math.log(Math.hypot(re, im)) + exponent * Math.log(2);
+    }
+
+    // A few Newton steps, each kept only if it lowers the backward error
+    static Complex polish(double[] coefficients, Complex root, int steps) {
+        double residual = Polynomials.relativeResidual(coefficients, root);
+        for (int step = 0; step < steps && residual > 0; step++) {
+            Complex candidate = root.minus(Polynomials.newtonCorrection(coefficients, root));
+            double candidateResidual = Polynomials.relativeResidual(coefficients, candidate);
+            if (!(candidateResidual < residual)) {
+                break;
+            }
+            root = candidate;
+            residual = candidateResidual;
+        }
+        return root;
+    }
+
+    /**
+     * Residual already at rounding level, or a correction small relative to the root while the
+     * residual is at least moderately small. The second condition matters: far from convergence,
+     * estimates can get corrections that are tiny only because the other estimates are far away.
+     */
+    static boolean isConverged(double[] coefficients, double zRe, double zIm, double correction, double tolerance) {
+        double residual = relativeResidual(coefficients, zRe, zIm);
+        return residual <= 4 * EPSILON || (correction <= tolerance * Math.hypot(zRe, zIm) && residual <= SQRT_EPSILON);
+    }
+
+    static Complex[] toComplex(double[] re, double[] im) {
+        Complex[] roots = new Complex[re.length];
+        for (int i = 0; i < re.length; i++) {
+            roots[i] = new Complex(re[i], im[i]);
+        }
+        return roots;
+    }
+}
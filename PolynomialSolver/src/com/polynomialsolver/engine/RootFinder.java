@@ -0,0 +1,15 @@
+package com.polynomialsolver.engine;
+
+/**
+ * A numerical method for all roots of a polynomial.
+ *
+ * Implementations receive coefficients highest degree first, already cleaned up by
+ * {@link PolynomialSolver}: degree at least 1, non-zero leading coefficient and non-zero
+ * constant term (roots at zero are split off beforehand). Polishing and sorting happen in
+ * {@link PolynomialSolver} as well, so finders only have to converge.
+ */
+public interface RootFinder {
+    String getName();
+
+    RootResult findRoots(double[] coefficients, SolverOptions options);
+}
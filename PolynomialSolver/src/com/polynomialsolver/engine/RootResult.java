@@ -0,0 +1,43 @@
+package com.polynomialsolver.engine;
+
+/**
+ * Roots found for one polynomial, with how the solver got there.
+ *
+ * {@code maxResidual} is the largest backward error |p(z)| / sum(|a_k| |z|^k) over the roots:
+ * values near 1e-16 mean every root is exact for a polynomial within rounding of the input.
+ */
+public final class RootResult {
+    private final String algorithm;
+    private final Complex[] roots;
+    private final int iterations;
+    private final boolean converged;
+    private final double maxResidual;
+
+    public RootResult(String algorithm, Complex[] roots, int iterations, boolean converged, double maxResidual) {
+        this.algorithm = algorithm;
+        this.roots = roots;
+        this.iterations = iterations;
+        this.converged = converged;
+        this.maxResidual = maxResidual;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public Complex[] getRoots() {
+        return roots.clone();
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+
+    public double getMaxResidual() {
+        return maxResidual;
+    }
+}
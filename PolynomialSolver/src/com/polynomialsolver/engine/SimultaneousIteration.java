@@ -0,0 +1,162 @@
+package com.polynomialsolver.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Shared driver for the methods that refine all root estimates together (Durand–Kerner, Aberth–Ehrlich).
+ *
+ * Estimates are kept in parallel re/im arrays. Sequential sweeps update them in place, Gauss–Seidel
+ * style, and allocate nothing. In parallel mode each sweep is a Jacobi step instead: every
+ * correction is computed from the previous iterate, so the index range can be split across the
+ * common ForkJoinPool, and the new estimates are applied after the sweep. Jacobi steps converge
+ * more slowly, and only methods that still converge reliably that way opt in through
+ * {@link #sweepsInParallel()}; the others ignore parallel mode. Splitting also has overhead, so
+ * parallel mode stays sequential below {@link #PARALLEL_MIN_DEGREE}. Converged estimates are
+ * frozen either way.
+ */
+abstract class SimultaneousIteration implements RootFinder {
+    static final int PARALLEL_MIN_DEGREE = 256;
+    // Each leaf task handles this many estimates, i.e. about LEAF_SIZE * n complex multiply-adds
+    private static final int LEAF_SIZE = 16;
+
+    /**
+     * Writes the correction for estimate i, computed from the current re/im, into out[0..1].
+     * Returns false if it is not finite (the estimate sits on a critical point or on another estimate).
+     */
+    abstract boolean correction(double[] coefficients, double[] re, double[] im, int i, double[] out);
+
+    // Whether parallel mode may use Jacobi sweeps for this method
+    abstract boolean sweepsInParallel();
+
+    @Override
+    public RootResult findRoots(double[] coefficients, SolverOptions options) {
+        int degree = coefficients.length - 1;
+        Estimates state = new Estimates(coefficients, options.getTolerance());
+        Polynomials.initialGuesses(coefficients, state.re, state.im);
+        boolean parallel = options.isParallel() && sweepsInParallel() && degree >= PARALLEL_MIN_DEGREE;
+        if (parallel) {
+            state.nextRe = new double[degree];
+            state.nextIm = new double[degree];
+            state.converged = new boolean[degree];
+        }
+
+        int remaining = degree;
+        int iterations = 0;
+        while (remaining > 0 && iterations < options.getMaxIterations()) {
+            iterations++;
+            remaining -= parallel ? parallelSweep(state) : sweep(state);
+        }
+        Complex[] roots = Polynomials.toComplex(state.re, state.im);
+        return new RootResult(getName(), roots, iterations, remaining == 0,
+                Polynomials.maxRelativeResidual(coefficients, roots));
+    }
+
+    // In place; returns how many estimates converged during the sweep
+    private int sweep(Estimates state) {
+        int newlyDone = 0;
+        for (int i = 0; i < state.re.length; i++) {
+            if (state.done[i]) {
+                continue;
+            }
+            if (!correction(state.coefficients, state.re, state.im, i, state.scratch)) {
+                nudge(state.re, state.im, i, state.re, state.im);
+                continue;
+            }
+            state.re[i] -= state.scratch[0];
+            state.im[i] -= state.scratch[1];
+            if (state.isConverged(state.re[i], state.im[i], state.scratch)) {
+                state.done[i] = true;
+                newlyDone++;
+            }
+        }
+        return newlyDone;
+    }
+
+    private int parallelSweep(Estimates state) {
+        ForkJoinPool.commonPool().invoke(new SweepTask(state, 0, state.re.length));
+        int newlyDone = 0;
+        for (int i = 0; i < state.re.length; i++) {
+            if (state.done[i]) {
+                continue;
+            }
+            state.re[i] = state.nextRe[i];
+            state.im[i] = state.nextIm[i];
+            if (state.converged[i]) {
+                state.done[i] = true;
+                newlyDone++;
+            }
+        }
+        return newlyDone;
+    }
+
+    // Moves an estimate off a spot where its correction is undefined; it is retried next sweep
+    private static void nudge(double[] re, double[] im, int i, double[] toRe, double[] toIm) {
+        double nudge = Math.max(Math.hypot(re[i], im[i]), 1) * 1e-8;
+        toRe[i] = re[i] + nudge * Math.cos(i);
+        toIm[i] = im[i] + nudge * Math.sin(i);
+    }
+
+    private static final class Estimates {
+        final double[] coefficients;
+        final double tolerance;
+        final double[] re;
+        final double[] im;
+        final boolean[] done;
+        final double[] scratch = new double[2];
+        // Parallel mode only: the next iterate and which of its estimates have converged
+        double[] nextRe;
+        double[] nextIm;
+        boolean[] converged;
+
+        Estimates(double[] coefficients, double tolerance) {
+            int degree = coefficients.length - 1;
+            this.coefficients = coefficients;
+            this.tolerance = tolerance;
+            this.re = new double[degree];
+            this.im = new double[degree];
+            this.done = new boolean[degree];
+        }
+
+        boolean isConverged(double zRe, double zIm, double[] correction) {
+            return Polynomials.isConverged(coefficients, zRe, zIm, Math.hypot(correction[0], correction[1]), tolerance);
+        }
+    }
+
+    // One Jacobi sweep over [from, to): reads re/im, writes only nextRe/nextIm/converged in its own range
+    @SuppressWarnings("serial")
+    private final class SweepTask extends RecursiveAction {
+        private final Estimates state;
+        private final int from;
+        private final int to;
+
+        SweepTask(Estimates state, int from, int to) {
+            this.state = state;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SweepTask(state, from, middle), new SweepTask(state, middle, to));
+                return;
+            }
+            double[] out = new double[2];
+            for (int i = from; i < to; i++) {
+                if (state.done[i]) {
+                    continue;
+                }
+                state.converged[i] = false;
+                if (!correction(state.coefficients, state.re, state.im, i, out)) {
+                    nudge(state.re, state.im, i, state.nextRe, state.nextIm);
+                    continue;
+                }
+                state.nextRe[i] = state.re[i] - out[0];
+                state.nextIm[i] = state.im[i] - out[1];
+                state.converged[i] = state.isConverged(state.nextRe[i], state.nextIm[i], out);
+            }
+        }
+    }
+}
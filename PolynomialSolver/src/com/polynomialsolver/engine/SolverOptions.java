@@ -0,0 +1,70 @@
+package com.polynomialsolver.engine;
+
+/**
+ * Convergence control shared by all root finders.
+ *
+ * A root is accepted once its last correction is below {@code tolerance} relative to its modulus
+ * (and the polynomial is already small there), or once the polynomial's value there is at the
+ * level of rounding error, whichever comes first.
+ * Iteration stops after {@code maxIterations} even if some roots have not converged; the result
+ * then reports {@code converged == false}. For the simultaneous methods that is a cap on sweeps,
+ * for Jenkins–Traub on the steps spent on each root and on its final refinement sweeps. The
+ * companion matrix method uses neither setting and keeps to the QR algorithm's own limit. With
+ * {@code polish} set, every root gets a few Newton steps against the original (undeflated)
+ * polynomial afterwards. With {@code parallel} set, Aberth–Ehrlich spreads each sweep across the
+ * common ForkJoinPool for large degrees; the other methods ignore it.
+ */
+public final class SolverOptions {
+    public static final SolverOptions DEFAULT = new SolverOptions(1e-12, 500, true, false);
+
+    private final double tolerance;
+    private final int maxIterations;
+    private final boolean polish;
+    private final boolean parallel;
+
+    public SolverOptions(double tolerance, int maxIterations, boolean polish) {
+        this(tolerance, maxIterations, polish, false);
+    }
+
+    public SolverOptions(double tolerance, int maxIterations, boolean polish, boolean parallel) {
+        if (!(tolerance > 0) || maxIterations < 1) {
+            throw new IllegalArgumentException("tolerance must be positive and maxIterations at least 1");
+        }
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.polish = polish;
+        this.parallel = parallel;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public boolean isPolish() {
+        return polish;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public SolverOptions withTolerance(double tolerance) {
+        return new SolverOptions(tolerance, maxIterations, polish, parallel);
+    }
+
+    public SolverOptions withMaxIterations(int maxIterations) {
+        return new SolverOptions(tolerance, maxIterations, polish, parallel);
+    }
+
+    public SolverOptions withPolish(boolean polish) {
+        return new SolverOptions(tolerance, maxIterations, polish, parallel);
+    }
+
+    public SolverOptions withParallel(boolean parallel) {
+        return new SolverOptions(tolerance, maxIterations, polish, parallel);
+    }
+}
@@ -6,4 +6,5 @@ module PolynomialSolver {
     
     opens com.polynomialsolver to javafx.fxml;
     exports com.polynomialsolver;
+    exports com.polynomialsolver.engine;
 } 
\ No newline at end of file
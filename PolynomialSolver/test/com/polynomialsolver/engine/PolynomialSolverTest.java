@@ -0,0 +1,178 @@
+package com.polynomialsolver.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PolynomialSolverTest {
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    void findsSimpleRootsWithEveryAlgorithm() {
+        // x^3 - 6x^2 + 11x - 6 = (x - 1)(x - 2)(x - 3)
+        for (Algorithm algorithm : Algorithm.values()) {
+            RootResult result = PolynomialSolver.solve(new double[]{1, -6, 11, -6}, algorithm);
+            assertTrue(result.isConverged(), algorithm.name());
+            assertRoots(result, new Complex(1, 0), new Complex(2, 0), new Complex(3, 0));
+        }
+    }
+
+    @Test
+    void findsComplexRootsAsExactConjugatePairs() {
+        // (x^2 + 1)(x - 2): +i is listed before -i
+        for (Algorithm algorithm : Algorithm.values()) {
+            RootResult result = PolynomialSolver.solve(new double[]{1, -2, 1, -2}, algorithm);
+            assertTrue(result.isConverged(), algorithm.name());
+            assertRoots(result, new Complex(0, 1), new Complex(0, -1), new Complex(2, 0));
+            Complex[] roots = result.getRoots();
+            assertEquals(roots[0].im(), -roots[1].im(), 0.0);
+            assertEquals(roots[0].re(), roots[1].re(), 0.0);
+        }
+    }
+
+    @Test
+    void findsMultipleRootToTheAccuracyItAllows() {
+        // A triple root is only determined to about the cube root of machine epsilon
+        for (Algorithm algorithm : Algorithm.values()) {
+            RootResult result = PolynomialSolver.solve(new double[]{1, -3, 3, -1}, algorithm);
+            assertTrue(result.isConverged(), algorithm.name());
+            assertEquals(3, result.getRoots().length);
+            for (Complex root : result.getRoots()) {
+                assertEquals(0, root.minus(Complex.ONE).abs(), 1e-4, algorithm.name());
+            }
+        }
+    }
+
+    @Test
+    void splitsOffRootsAtZeroExactly() {
+        // x^6 + x^3 = x^3 (x + 1)(x^2 - x + 1)
+        for (Algorithm algorithm : Algorithm.values()) {
+            RootResult result = PolynomialSolver.solve(new double[]{1, 0, 0, 1, 0, 0, 0}, algorithm);
+            assertTrue(result.isConverged(), algorithm.name());
+            double h = Math.sqrt(3) / 2;
+            assertRoots(result, new Complex(-1, 0), Complex.ZERO, Complex.ZERO, Complex.ZERO,
+                    new Complex(0.5, h), new Complex(0.5, -h));
+            int exactZeros = 0;
+            for (Complex root : result.getRoots()) {
+                if (root.equals(Complex.ZERO)) {
+                    exactZeros++;
+                }
+            }
+            assertEquals(3, exactZeros, algorithm.name());
+        }
+    }
+
+    @Test
+    void constantHasNoRoots() {
+        RootResult result = PolynomialSolver.solve(new double[]{5});
+        assertEquals(0, result.getRoots().length);
+        assertTrue(result.isConverged());
+        assertEquals(PolynomialSolver.CLOSED_FORM, result.getAlgorithm());
+    }
+
+    @Test
+    void leadingZerosAreDropped() {
+        assertEquals(0, PolynomialSolver.solve(new double[]{0, 0, 3}).getRoots().length);
+        assertRoots(PolynomialSolver.solve(new double[]{0, 0, 1, -3, 2}), new Complex(1, 0), new Complex(2, 0));
+    }
+
+    @Test
+    void linearUsesClosedForm() {
+        RootResult result = PolynomialSolver.solve(new double[]{2, -4});
+        assertEquals(PolynomialSolver.CLOSED_FORM, result.getAlgorithm());
+        assertRoots(result, new Complex(2, 0));
+    }
+
+    @Test
+    void quadraticUsesClosedFormWithoutCancellation() {
+        assertRoots(PolynomialSolver.solve(new double[]{1, -3, 2}), new Complex(1, 0), new Complex(2, 0));
+        assertRoots(PolynomialSolver.solve(new double[]{1, 0, 1}), new Complex(0, 1), new Complex(0, -1));
+        assertRoots(PolynomialSolver.solve(new double[]{1, 2, 1}), new Complex(-1, 0), new Complex(-1, 0));
+
+        // The textbook formula loses the small root of x^2 - 1e8 x + 1 to cancellation
+        Complex[] roots = PolynomialSolver.solve(new double[]{1, -1e8, 1}).getRoots();
+        assertEquals(1e-8, roots[0].re(), 1e-8 * TOLERANCE);
+        assertEquals(1e8, roots[1].re(), 1e8 * TOLERANCE);
+    }
+
+    @Test
+    void rejectsInputWithoutRoots() {
+        assertThrows(IllegalArgumentException.class, () -> PolynomialSolver.solve(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> PolynomialSolver.solve(new double[]{0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> PolynomialSolver.solve(new double[]{1, Double.NaN, 1}));
+        assertThrows(IllegalArgumentException.class,
+                () -> PolynomialSolver.solve(new double[]{1, Double.POSITIVE_INFINITY, 1}));
+    }
+
+    @Test
+    void reportsNotConvergedForBadlyScaledInput() {
+        // Coefficients spanning 400 orders of magnitude: Aberth–Ehrlich does not get there
+        RootResult result = PolynomialSolver.solve(new double[]{1, 1e200, 1e-200, 1});
+        assertFalse(result.isConverged());
+        assertTrue(result.getMaxResidual() > Polynomials.SQRT_EPSILON);
+    }
+
+    @Test
+    void reportsNotConvergedWhenTheMonicFormOverflows() {
+        // Dividing by the leading coefficient overflows; these methods give up with no roots
+        double[] coefficients = {1e-300, 0, 0, 1e300};
+        for (Algorithm algorithm : new Algorithm[]{Algorithm.JENKINS_TRAUB, Algorithm.COMPANION_MATRIX}) {
+            RootResult result = PolynomialSolver.solve(coefficients, algorithm);
+            assertFalse(result.isConverged(), algorithm.name());
+            assertEquals(0, result.getRoots().length, algorithm.name());
+        }
+        // The simultaneous methods never form the monic polynomial
+        assertTrue(PolynomialSolver.solve(coefficients).isConverged());
+    }
+
+    @Test
+    void reportsNotConvergedWhenOutOfIterations() {
+        double[] coefficients = randomPolynomial(50, new Random(1));
+        SolverOptions oneSweep = new SolverOptions(1e-12, 1, false);
+        for (Algorithm algorithm : new Algorithm[]{Algorithm.DURAND_KERNER, Algorithm.ABERTH_EHRLICH}) {
+            assertFalse(PolynomialSolver.solve(coefficients, algorithm.finder(), oneSweep).isConverged(),
+                    algorithm.name());
+        }
+    }
+
+    @Test
+    void everyAlgorithmSolvesRandomPolynomials() {
+        for (int seed = 1; seed <= 3; seed++) {
+            double[] coefficients = randomPolynomial(60, new Random(seed));
+            for (Algorithm algorithm : Algorithm.values()) {
+                RootResult result = PolynomialSolver.solve(coefficients, algorithm);
+                assertTrue(result.isConverged(), algorithm + " seed " + seed);
+                assertEquals(60, result.getRoots().length);
+                assertTrue(result.getMaxResidual() <= Polynomials.SQRT_EPSILON, algorithm + " seed " + seed);
+            }
+        }
+    }
+
+    static double[] randomPolynomial(int degree, Random random) {
+        double[] coefficients = new double[degree + 1];
+        for (int i = 0; i <= degree; i++) {
+            coefficients[i] = random.nextGaussian();
+        }
+        return coefficients;
+    }
+
+    // The solver sorts by real part, then larger imaginary part first; sort the expectation the same way
+    private static void assertRoots(RootResult result, Complex... expected) {
+        Complex[] roots = result.getRoots();
+        assertEquals(expected.length, roots.length, "root count");
+        Arrays.sort(expected, Comparator.comparingDouble(Complex::re)
+                .thenComparing(Comparator.comparingDouble(Complex::im).reversed()));
+        for (int i = 0; i < roots.length; i++) {
+            double scale = Math.max(1, expected[i].abs());
+            assertEquals(0, roots[i].minus(expected[i]).abs(), TOLERANCE * scale,
+                    "root " + i + ": expected " + expected[i] + " but was " + roots[i]);
+        }
+    }
+}
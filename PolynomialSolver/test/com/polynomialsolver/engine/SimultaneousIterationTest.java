@@ -0,0 +1,64 @@
+package com.polynomialsolver.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimultaneousIterationTest {
+    private static final int DEGREE = SimultaneousIteration.PARALLEL_MIN_DEGREE + 44;
+    private static final SolverOptions SEQUENTIAL = SolverOptions.DEFAULT.withPolish(false);
+    private static final SolverOptions PARALLEL = SEQUENTIAL.withParallel(true);
+
+    @Test
+    void parallelSweepsFindTheSameRootsAsSequentialSweeps() {
+        for (int seed = 1; seed <= 2; seed++) {
+            double[] coefficients = PolynomialSolverTest.randomPolynomial(DEGREE, new Random(seed));
+            RootResult sequential = new AberthEhrlich().findRoots(coefficients, SEQUENTIAL);
+            RootResult parallel = new AberthEhrlich().findRoots(coefficients, PARALLEL);
+            assertTrue(sequential.isConverged(), "sequential seed " + seed);
+            assertTrue(parallel.isConverged(), "parallel seed " + seed);
+            assertSameRoots(sequential.getRoots(), parallel.getRoots());
+        }
+    }
+
+    @Test
+    void methodsThatDoNotSweepInParallelIgnoreParallelMode() {
+        double[] coefficients = PolynomialSolverTest.randomPolynomial(DEGREE, new Random(3));
+        RootResult sequential = new DurandKerner().findRoots(coefficients, SEQUENTIAL);
+        RootResult parallel = new DurandKerner().findRoots(coefficients, PARALLEL);
+        assertEquals(sequential.getIterations(), parallel.getIterations());
+        assertArrayEquals(sequential.getRoots(), parallel.getRoots());
+    }
+
+    @Test
+    void parallelModeStaysSequentialForSmallDegrees() {
+        double[] coefficients = PolynomialSolverTest.randomPolynomial(40, new Random(4));
+        RootResult sequential = new AberthEhrlich().findRoots(coefficients, SEQUENTIAL);
+        RootResult parallel = new AberthEhrlich().findRoots(coefficients, PARALLEL);
+        assertEquals(sequential.getIterations(), parallel.getIterations());
+        assertArrayEquals(sequential.getRoots(), parallel.getRoots());
+    }
+
+    // Jacobi and Gauss–Seidel sweeps return the roots in different orders and differ in the last bits
+    private static void assertSameRoots(Complex[] expected, Complex[] actual) {
+        assertEquals(expected.length, actual.length);
+        boolean[] matched = new boolean[actual.length];
+        for (Complex root : expected) {
+            int nearest = -1;
+            double distance = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < actual.length; j++) {
+                double d = actual[j].minus(root).abs();
+                if (!matched[j] && d < distance) {
+                    nearest = j;
+                    distance = d;
+                }
+            }
+            assertTrue(distance <= 1e-8 * Math.max(1, root.abs()), "no parallel root near " + root);
+            matched[nearest] = true;
+        }
+    }
+}
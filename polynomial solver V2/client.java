@@ -76,6 +76,14 @@ public class client extends Application {
                 }
 
                 int rootCount = input.readInt();
+                if (rootCount == -1) {
+                    showAlert("Server busy", "The server is handling too many requests. Please try again in a moment.");
+                    return;
+                }
+                if (rootCount == -2) {
+                    showAlert("Invalid polynomial", "The server rejected this polynomial (all coefficients zero or degree too high).");
+                    return;
+                }
                 StringBuilder sb = new StringBuilder();
                 for (int i = 0; i < rootCount; i++) {
                     double re = input.readDouble();
@@ -1,135 +1,143 @@
+import com.polynomialsolver.engine.Complex;
+import com.polynomialsolver.engine.PolynomialSolver;
+import com.polynomialsolver.engine.RootResult;
+import com.polynomialsolver.engine.SolverOptions;
+
 import java.io.*;
 import java.net.*;
-import java.util.*;
-
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Uses the solver engine from the PolynomialSolver project:
+//   javac -d out ../PolynomialSolver/src/com/polynomialsolver/engine/*.java server.java && java -cp out server
+//
+// Every connection gets its own virtual thread, so slow clients only hold a cheap thread while their
+// request is read. Solving needs one of polysolver.maxInFlight permits (default: one per core); a
+// request that can't get one within polysolver.queueTimeoutMs is answered with BUSY instead of
+// queueing without bound. Ctrl+C stops accepting and lets requests in progress finish.
+//
+// Protocol: int degree, then degree + 1 doubles, highest degree first. The reply is the number of
+// roots followed by re/im doubles per root, or a negative status (BUSY, REJECTED) on its own.
 public class server {
+    static final int BUSY = -1;
+    static final int REJECTED = -2;
 
-    public static void main(String[] args) throws IOException {
-        ServerSocket serverSocket = new ServerSocket(5000);
-        System.out.println("Server started on port 5000...");
+    private static final int PORT = Integer.getInteger("polysolver.port", 5000);
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("polysolver.maxInFlight",
+            Runtime.getRuntime().availableProcessors());
+    private static final long QUEUE_TIMEOUT_MS = Long.getLong("polysolver.queueTimeoutMs", 2000);
+    private static final int READ_TIMEOUT_MS = Integer.getInteger("polysolver.readTimeoutMs", 10000);
+    private static final int MAX_DEGREE = Integer.getInteger("polysolver.maxDegree", 10000);
+    private static final long SHUTDOWN_GRACE_MS = Long.getLong("polysolver.shutdownGraceMs", 30000);
 
-        while (true) {
-            Socket socket = serverSocket.accept();
-            System.out.println("Client connected: " + socket);
+    // Large degrees spread each sweep across cores; small ones stay sequential inside the engine
+    private static final SolverOptions OPTIONS = SolverOptions.DEFAULT.withParallel(true);
 
-            DataInputStream input = new DataInputStream(socket.getInputStream());
-            DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+    // Fair, so waiting requests get their turn in arrival order
+    private static final Semaphore solveSlots = new Semaphore(MAX_IN_FLIGHT, true);
 
-            int degree = input.readInt();
-            double[] coeffs = new double[degree + 1];
-            for (int i = 0; i <= degree; i++) {
-                coeffs[i] = input.readDouble();
+    public static void main(String[] args) throws IOException {
+        ServerSocket serverSocket = new ServerSocket(PORT);
+        ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(serverSocket, connections)));
+        System.out.println("Server started on port " + PORT + " (max " + MAX_IN_FLIGHT + " solves in flight)...");
+
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                // Closed by the shutdown hook
+                break;
             }
-
-            Complex[] roots = solvePolynomial(coeffs);
-            output.writeInt(roots.length);
-            for (Complex root : roots) {
-                output.writeDouble(root.re);
-                output.writeDouble(root.im);
+            System.out.println("Client connected: " + socket);
+            try {
+                connections.submit(() -> handle(socket));
+            } catch (RejectedExecutionException e) {
+                socket.close();
             }
-
-            socket.close();
-        }
-    }
-
-    static Complex[] solvePolynomial(double[] coeffs) {
-        int degree = coeffs.length - 1;
-        if (degree == 1) return solveLinear(coeffs);
-        if (degree == 2) return solveQuadratic(coeffs);
-        return solveWithDurandKerner(coeffs);
-    }
-
-    static Complex[] solveLinear(double[] coeffs) {
-        double a = coeffs[0], b = coeffs[1];
-        return new Complex[]{new Complex(-b / a, 0)};
-    }
-
-    static Complex[] solveQuadratic(double[] coeffs) {
-        double a = coeffs[0], b = coeffs[1], c = coeffs[2];
-        double disc = b * b - 4 * a * c;
-        if (disc >= 0) {
-            double sqrtDisc = Math.sqrt(disc);
-            return new Complex[]{
-                new Complex((-b + sqrtDisc) / (2 * a), 0),
-                new Complex((-b - sqrtDisc) / (2 * a), 0)
-            };
-        } else {
-            double real = -b / (2 * a);
-            double imag = Math.sqrt(-disc) / (2 * a);
-            return new Complex[]{
-                new Complex(real, imag),
-                new Complex(real, -imag)
-            };
-        }
-    }
-
-    static Complex evaluate(double[] coeffs, Complex x) {
-        Complex result = new Complex(0, 0);
-        for (double coef : coeffs) {
-            result = result.multiply(x).add(new Complex(coef, 0));
         }
-        return result;
     }
 
-    static Complex[] solveWithDurandKerner(double[] coeffs) {
-        int n = coeffs.length - 1;
-        Complex[] roots = new Complex[n];
-        Complex[] newRoots = new Complex[n];
-        double angle;
-        for (int i = 0; i < n; i++) {
-            angle = 2 * Math.PI * i / n;
-            roots[i] = new Complex(Math.cos(angle), Math.sin(angle));
+    private static void shutdown(ServerSocket serverSocket, ExecutorService connections) {
+        System.out.println("Shutting down: no new connections, waiting for requests in progress...");
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-
-        int maxIter = 100;
-        double tol = 1e-8;
-
-        for (int iter = 0; iter < maxIter; iter++) {
-            boolean converged = true;
-            for (int i = 0; i < n; i++) {
-                Complex numerator = evaluate(coeffs, roots[i]);
-                Complex denom = new Complex(1, 0);
-                for (int j = 0; j < n; j++) {
-                    if (i != j) denom = denom.multiply(roots[i].subtract(roots[j]));
-                }
-                newRoots[i] = roots[i].subtract(numerator.divide(denom));
-                if (roots[i].subtract(newRoots[i]).abs() > tol) converged = false;
+        connections.shutdown();
+        try {
+            if (!connections.awaitTermination(SHUTDOWN_GRACE_MS, TimeUnit.MILLISECONDS)) {
+                System.out.println("Requests still running after " + SHUTDOWN_GRACE_MS + " ms, interrupting them");
+                connections.shutdownNow();
             }
-            roots = Arrays.copyOf(newRoots, n);
-            if (converged) break;
+        } catch (InterruptedException e) {
+            connections.shutdownNow();
         }
-
-        return roots;
+        System.out.println("Server stopped.");
     }
 
-    static class Complex {
-        double re, im;
-
-        Complex(double r, double i) {
-            re = r;
-            im = i;
-        }
-
-        Complex add(Complex o) {
-            return new Complex(re + o.re, im + o.im);
-        }
+    private static void handle(Socket socket) {
+        try (socket;
+             DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            socket.setSoTimeout(READ_TIMEOUT_MS);
 
-        Complex subtract(Complex o) {
-            return new Complex(re - o.re, im - o.im);
-        }
+            int degree = input.readInt();
+            if (degree < 0 || degree > MAX_DEGREE) {
+                System.out.println("Rejected degree " + degree + " from " + socket.getRemoteSocketAddress());
+                output.writeInt(REJECTED);
+                output.flush();
+                return;
+            }
+            double[] coeffs = new double[degree + 1];
+            for (int i = 0; i <= degree; i++) {
+                coeffs[i] = input.readDouble();
+            }
 
-        Complex multiply(Complex o) {
-            return new Complex(re * o.re - im * o.im, re * o.im + im * o.re);
-        }
+            // The request is read before a slot is taken, so slow senders don't hold one
+            if (!solveSlots.tryAcquire(QUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                System.out.println("Busy: told " + socket.getRemoteSocketAddress() + " to retry later");
+                output.writeInt(BUSY);
+                output.flush();
+                return;
+            }
+            Complex[] roots;
+            try {
+                roots = solvePolynomial(coeffs);
+            } catch (IllegalArgumentException e) {
+                // All-zero or non-finite coefficients: nothing sensible to send back
+                System.out.println("Rejected polynomial: " + e.getMessage());
+                output.writeInt(REJECTED);
+                output.flush();
+                return;
+            } finally {
+                solveSlots.release();
+            }
 
-        Complex divide(Complex o) {
-            double denom = o.re * o.re + o.im * o.im;
-            return new Complex((re * o.re + im * o.im) / denom,
-                               (im * o.re - re * o.im) / denom);
+            output.writeInt(roots.length);
+            for (Complex root : roots) {
+                output.writeDouble(root.re());
+                output.writeDouble(root.im());
+            }
+            output.flush();
+        } catch (SocketTimeoutException e) {
+            System.out.println("Client " + socket.getRemoteSocketAddress() + " timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            e.printStackTrace();
         }
+    }
 
-        double abs() {
-            return Math.hypot(re, im);
-        }
+    static Complex[] solvePolynomial(double[] coeffs) {
+        RootResult result = PolynomialSolver.solve(coeffs, OPTIONS);
+        System.out.println("Degree " + (coeffs.length - 1) + " solved with " + result.getAlgorithm()
+                + (result.isConverged() ? "" : " (not fully converged)"));
+        return result.getRoots();
     }
 }